@@ -0,0 +1,146 @@
+package com.agriculture.mauritanie.config;
+
+import com.agriculture.mauritanie.dto.auth.ApiResponseWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limite le nombre de requêtes API traitées simultanément.
+ * Avec les threads virtuels, Tomcat ne plafonne plus la concurrence : sans cette admission,
+ * des milliers de requêtes attendraient une connexion du pool Hikari jusqu'au timeout.
+ * Au-delà du plafond (par défaut la taille du pool), une requête attend brièvement puis reçoit un 503.
+ * Une réponse asynchrone (export en flux) garde son permis jusqu'à la fin de l'écriture,
+ * puisqu'elle occupe une connexion pendant toute la lecture.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+@Slf4j
+public class AdmissionRequetesFilter extends OncePerRequestFilter {
+
+    private final Semaphore permis;
+    private final long attenteMillis;
+    private final ObjectMapper objectMapper;
+    private final Counter rejets;
+
+    public AdmissionRequetesFilter(
+            @Value("${app.admission.max-concurrentes:${spring.datasource.hikari.maximum-pool-size:20}}") int maxConcurrentes,
+            @Value("${app.admission.attente:PT0.2S}") Duration attente,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.permis = new Semaphore(maxConcurrentes, true);
+        this.attenteMillis = attente.toMillis();
+        this.objectMapper = objectMapper;
+
+        Gauge.builder("http.admission.en_cours", permis, s -> maxConcurrentes - s.availablePermits())
+                .description("Requêtes API en cours de traitement")
+                .register(meterRegistry);
+        this.rejets = Counter.builder("http.admission.rejets")
+                .description("Requêtes API refusées faute de capacité")
+                .register(meterRegistry);
+        log.info("Admission des requêtes activée: {} simultanées, attente max {} ms", maxConcurrentes, attenteMillis);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        boolean admis;
+        try {
+            admis = permis.tryAcquire(attenteMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admis = false;
+        }
+
+        if (!admis) {
+            rejets.increment();
+            refuser(response);
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Traitement poursuivi hors du thread de requête : permis rendu à la fin de la réponse
+                request.getAsyncContext().addListener(new LiberationPermis());
+            } else {
+                permis.release();
+            }
+        }
+    }
+
+    /**
+     * Rend le permis une seule fois, quand la réponse asynchrone est terminée (y compris après timeout ou erreur)
+     */
+    private final class LiberationPermis implements AsyncListener {
+
+        private final AtomicBoolean libere = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (libere.compareAndSet(false, true)) {
+                permis.release();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Suivi de onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Suivi de onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Nouveau cycle asynchrone : les écouteurs du précédent ne sont pas conservés
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private void refuser(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        objectMapper.writeValue(response.getOutputStream(), ApiResponseWrapper.builder()
+                .success(false)
+                .message("Serveur saturé, veuillez réessayer")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,42 @@
+package com.agriculture.mauritanie.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String DASHBOARD = "dashboard";
+    public static final String STATISTIQUES = "statistiques";
+
+    @Value("${app.cache.dashboard.maximum-size:10000}")
+    private long dashboardMaximumSize;
+
+    @Value("${app.cache.dashboard.expire-after-write:300}") // 5 minutes en secondes
+    private long dashboardExpireAfterWrite;
+
+    /**
+     * Caches Caffeine bornés en taille et en durée. Les noms sont déclarés au démarrage
+     * pour que l'actuator publie leurs métriques (cache.gets, cache.evictions, ...).
+     * Le proxy transactionnel reporte les évictions après le commit, pour qu'une lecture
+     * concurrente ne remette pas en cache un état pas encore validé.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(DASHBOARD, STATISTIQUES);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(dashboardMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(dashboardExpireAfterWrite))
+                .recordStats());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
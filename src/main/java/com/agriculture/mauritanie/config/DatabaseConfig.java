@@ -1,4 +1,74 @@
 package com.agriculture.mauritanie.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Séparation lecture / écriture (activée par app.datasource.replica.enabled).
+ * Deux pools Hikari distincts, chacun avec ses métriques hikaricp.* :
+ * le primaire (spring.datasource.*) et la réplique (app.datasource.replica.*).
+ * Les méthodes @Transactional(readOnly = true) — tableau de bord, statistiques, listes,
+ * recherche, export — lisent sur la réplique ; les écritures et le code hors transaction
+ * restent sur le primaire.
+ * Attention au retard de réplication : une lecture juste après une écriture peut ne pas la voir.
+ * Les lectures qui doivent voir l'écriture (remplissage du cache du tableau de bord après éviction,
+ * recherche après construction de l'index) passent par {@link LecturePrimaire}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
 public class DatabaseConfig {
+
+    @Value("${app.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.delai-repli:PT30S}")
+    private Duration delaiRepli;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaireDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Même pilote que le primaire ; URL, identifiants et réglages du pool propres à la réplique
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(replicaUrl);
+        dataSource.setUsername(replicaUsername);
+        dataSource.setPassword(replicaPassword);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaireDataSource") DataSource primaire,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new RoutageLectureEcritureDataSource(primaire, replica, delaiRepli, meterRegistry));
+    }
 }
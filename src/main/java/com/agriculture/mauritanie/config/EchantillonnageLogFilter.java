@@ -0,0 +1,58 @@
+package com.agriculture.mauritanie.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Échantillonnage des journaux INFO par requête (déclaré dans logback-spring.xml, profil prod).
+ * Pour les loggers ciblés, seul un message INFO sur {@code taux} est conservé ; WARN et ERROR passent toujours.
+ * Filtre « turbo » : la décision est prise avant la construction et le formatage de l'événement.
+ */
+public class EchantillonnageLogFilter extends TurboFilter {
+
+    private List<String> loggers = List.of();
+    private int taux = 1;
+    private final AtomicLong compteur = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format null : simple test isInfoEnabled(), sans message à compter
+        if (taux <= 1 || format == null || level != Level.INFO || !estCible(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return compteur.getAndIncrement() % taux == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean estCible(String nom) {
+        for (String prefixe : loggers) {
+            if (nom.startsWith(prefixe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Noms (ou préfixes) de loggers séparés par des virgules
+     */
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(nom -> !nom.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Un message conservé sur {@code taux} ; 1 désactive l'échantillonnage
+     */
+    public void setTaux(int taux) {
+        this.taux = Math.max(1, taux);
+    }
+}
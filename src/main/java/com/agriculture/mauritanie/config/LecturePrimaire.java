@@ -0,0 +1,34 @@
+package com.agriculture.mauritanie.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Lectures à faire sur le primaire même dans une transaction readOnly (voir RoutageLectureEcritureDataSource) :
+ * lectures qui remplissent un cache juste après une éviction, ou qui doivent voir une écriture
+ * que le même appel vient de valider. Sur la réplique, le retard de réplication les rendrait périmées.
+ * La connexion étant obtenue à la première requête SQL, l'appel peut se faire dans le corps
+ * d'une méthode @Transactional(readOnly = true).
+ */
+public final class LecturePrimaire {
+
+    private static final ThreadLocal<Boolean> DEMANDEE = new ThreadLocal<>();
+
+    private LecturePrimaire() {
+    }
+
+    public static <T> T executer(Supplier<T> lecture) {
+        if (estDemandee()) {
+            return lecture.get();
+        }
+        DEMANDEE.set(Boolean.TRUE);
+        try {
+            return lecture.get();
+        } finally {
+            DEMANDEE.remove();
+        }
+    }
+
+    static boolean estDemandee() {
+        return Boolean.TRUE.equals(DEMANDEE.get());
+    }
+}
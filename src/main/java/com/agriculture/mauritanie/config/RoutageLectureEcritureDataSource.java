@@ -0,0 +1,93 @@
+package com.agriculture.mauritanie.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Aiguillage des connexions : transactions readOnly vers la réplique, tout le reste vers le primaire,
+ * ainsi que les lectures marquées par {@link LecturePrimaire}.
+ * Si la réplique ne fournit pas de connexion, la lecture part sur le primaire et la réplique
+ * est écartée pendant {@code delaiRepli} avant d'être retentée.
+ * Doit être enveloppée dans un LazyConnectionDataSourceProxy : le drapeau readOnly n'est connu
+ * qu'après le début de la transaction.
+ */
+@Slf4j
+class RoutageLectureEcritureDataSource extends AbstractDataSource {
+
+    private final DataSource primaire;
+    private final DataSource replica;
+    private final Duration delaiRepli;
+    private final Clock horloge;
+
+    private final Counter versPrimaire;
+    private final Counter versReplica;
+    private final Counter replis;
+
+    // null : réplique utilisable (pas de valeur sentinelle, System.nanoTime() pouvant être négatif)
+    private volatile Instant replicaIndisponibleJusqua;
+
+    RoutageLectureEcritureDataSource(DataSource primaire, DataSource replica, Duration delaiRepli,
+                                     MeterRegistry meterRegistry) {
+        this(primaire, replica, delaiRepli, meterRegistry, Clock.systemUTC());
+    }
+
+    RoutageLectureEcritureDataSource(DataSource primaire, DataSource replica, Duration delaiRepli,
+                                     MeterRegistry meterRegistry, Clock horloge) {
+        this.primaire = primaire;
+        this.replica = replica;
+        this.delaiRepli = delaiRepli;
+        this.horloge = horloge;
+        this.versPrimaire = compteur(meterRegistry, "primaire");
+        this.versReplica = compteur(meterRegistry, "replica");
+        this.replis = compteur(meterRegistry, "repli");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || LecturePrimaire.estDemandee()) {
+            versPrimaire.increment();
+            return primaire.getConnection();
+        }
+        Instant indisponibleJusqua = replicaIndisponibleJusqua;
+        if (indisponibleJusqua != null && horloge.instant().isBefore(indisponibleJusqua)) {
+            replis.increment();
+            return primaire.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            versReplica.increment();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            // RuntimeException : échec d'initialisation du pool Hikari au premier appel
+            replicaIndisponibleJusqua = horloge.instant().plus(delaiRepli);
+            replis.increment();
+            log.warn("Réplique indisponible, lectures redirigées vers le primaire pendant {} s: {}",
+                    delaiRepli.toSeconds(), e.getMessage());
+            return primaire.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Identifiants explicites : connexion d'administration, toujours sur le primaire
+        versPrimaire.increment();
+        return primaire.getConnection(username, password);
+    }
+
+    private static Counter compteur(MeterRegistry meterRegistry, String cible) {
+        return Counter.builder("datasource.routage")
+                .description("Connexions obtenues par cible")
+                .tag("cible", cible)
+                .register(meterRegistry);
+    }
+}
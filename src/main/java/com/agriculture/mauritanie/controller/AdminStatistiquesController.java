@@ -0,0 +1,69 @@
+package com.agriculture.mauritanie.controller;
+
+import com.agriculture.mauritanie.dto.auth.ApiResponseWrapper;
+import com.agriculture.mauritanie.dto.dashboard.CoherenceStatsDTO;
+import com.agriculture.mauritanie.service.ParcelleStatsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/statistiques/parcelles")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Administration des statistiques", description = "Maintenance de la table parcelle_stats")
+public class AdminStatistiquesController {
+
+    private final ParcelleStatsService parcelleStatsService;
+
+    @PostMapping("/reconstruire")
+    @Operation(summary = "Reconstruire toutes les statistiques",
+            description = "Recalcule parcelle_stats depuis la table parcelles pour tous les agriculteurs")
+    public ResponseEntity<ApiResponseWrapper<Integer>> reconstruireTout() {
+        log.info("Reconstruction complète de parcelle_stats demandée");
+
+        int nombreAgriculteurs = parcelleStatsService.reconstruireTout();
+
+        return ResponseEntity.ok(ApiResponseWrapper.<Integer>builder()
+                .success(true)
+                .message("Statistiques reconstruites")
+                .data(nombreAgriculteurs)
+                .build());
+    }
+
+    @PostMapping("/{agriculteurId}/reconstruire")
+    @Operation(summary = "Reconstruire les statistiques d'un agriculteur",
+            description = "Recalcule parcelle_stats depuis la table parcelles pour un agriculteur")
+    public ResponseEntity<ApiResponseWrapper<CoherenceStatsDTO>> reconstruire(
+            @Parameter(description = "ID de l'agriculteur") @PathVariable Long agriculteurId) {
+
+        parcelleStatsService.reconstruire(agriculteurId);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<CoherenceStatsDTO>builder()
+                .success(true)
+                .message("Statistiques reconstruites")
+                .data(parcelleStatsService.verifierCoherence(agriculteurId))
+                .build());
+    }
+
+    @GetMapping("/{agriculteurId}/coherence")
+    @Operation(summary = "Vérifier la cohérence des statistiques",
+            description = "Compare parcelle_stats à un recalcul complet et liste les écarts")
+    public ResponseEntity<ApiResponseWrapper<CoherenceStatsDTO>> verifierCoherence(
+            @Parameter(description = "ID de l'agriculteur") @PathVariable Long agriculteurId) {
+
+        CoherenceStatsDTO coherence = parcelleStatsService.verifierCoherence(agriculteurId);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<CoherenceStatsDTO>builder()
+                .success(true)
+                .message(coherence.isCoherent() ? "Statistiques cohérentes" : "Dérive détectée")
+                .data(coherence)
+                .build());
+    }
+}
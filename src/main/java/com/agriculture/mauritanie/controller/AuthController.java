@@ -2,6 +2,7 @@ package com.agriculture.mauritanie.controller;
 
 import com.agriculture.mauritanie.dto.auth.*;
 import com.agriculture.mauritanie.service.AuthService;
+import com.agriculture.mauritanie.security.JwtClaims;
 import com.agriculture.mauritanie.security.JwtTokenProvider;
 import com.agriculture.mauritanie.service.CustomUserDetailsService;
 
@@ -169,17 +170,14 @@ public class AuthController {
             @RequestHeader("Authorization") String authHeader) {
 
         String token = authHeader.replace("Bearer ", "");
-        boolean isValid = jwtTokenProvider.validateToken(token);
-
-        if (isValid) {
-            String username = jwtTokenProvider.getUsernameFromToken(token);
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
+        JwtClaims claims = jwtTokenProvider.parse(token).orElse(null);
 
+        if (claims != null) {
             TokenValidationResponse response = TokenValidationResponse.builder()
                     .valid(true)
-                    .username(username)
-                    .userId(userId)
-                    .expiresAt(jwtTokenProvider.getExpirationDateFromToken(token))
+                    .username(claims.getSubject())
+                    .userId(claims.getUserId())
+                    .expiresAt(claims.getExpirationDate())
                     .build();
 
             return ResponseEntity.ok(ApiResponseWrapper.<TokenValidationResponse>builder()
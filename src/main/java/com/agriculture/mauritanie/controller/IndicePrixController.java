@@ -0,0 +1,58 @@
+package com.agriculture.mauritanie.controller;
+
+import com.agriculture.mauritanie.dto.auth.ApiResponseWrapper;
+import com.agriculture.mauritanie.dto.prix.IndicePrixDTO;
+import com.agriculture.mauritanie.service.IndicePrixService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Prix du marché", description = "Indice des prix des produits agricoles par région")
+public class IndicePrixController {
+
+    private final IndicePrixService indicePrixService;
+
+    @GetMapping("/public/prix")
+    @Operation(summary = "Prix d'un produit",
+            description = "Prix minimum, médian et maximum et volume proposé des offres disponibles, " +
+                    "par région et par unité (KG et TONNE ramenés au kilogramme)")
+    public ResponseEntity<ApiResponseWrapper<List<IndicePrixDTO>>> getPrix(
+            @Parameter(description = "Produit") @RequestParam String produit,
+            @Parameter(description = "Région (toutes si absente)") @RequestParam(required = false) String region) {
+
+        List<IndicePrixDTO> prix = indicePrixService.consulter(produit, region);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<List<IndicePrixDTO>>builder()
+                .success(true)
+                .message(prix.isEmpty() ? "Aucune offre pour ce produit" : "Prix récupérés avec succès")
+                .data(prix)
+                .build());
+    }
+
+    @PostMapping("/admin/prix/reconstruire")
+    @Operation(summary = "Reconstruire l'indice des prix",
+            description = "Recalcule l'indice en mémoire depuis la table offres_marche")
+    public ResponseEntity<ApiResponseWrapper<String>> reconstruire() {
+        log.info("Reconstruction de l'indice des prix demandée");
+
+        indicePrixService.reconstruire();
+
+        return ResponseEntity.ok(ApiResponseWrapper.<String>builder()
+                .success(true)
+                .message("Indice des prix reconstruit")
+                .data("Indice des prix reconstruit")
+                .build());
+    }
+}
@@ -0,0 +1,236 @@
+package com.agriculture.mauritanie.controller;
+
+import com.agriculture.mauritanie.dto.appariement.AcheteurCorrespondantDTO;
+import com.agriculture.mauritanie.dto.auth.ApiResponseWrapper;
+import com.agriculture.mauritanie.dto.geo.ElementProximiteDTO;
+import com.agriculture.mauritanie.dto.offre.*;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.service.CustomUserDetailsService;
+import com.agriculture.mauritanie.service.OffreMarcheService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Marché", description = "APIs de publication et de consultation des offres de produits agricoles")
+public class OffreMarcheController {
+
+    private final OffreMarcheService offreMarcheService;
+
+    // =============================================
+    // CONSULTATION PUBLIQUE
+    // =============================================
+
+    @GetMapping("/public/offres")
+    @Operation(summary = "Parcourir les offres",
+            description = "Offres disponibles filtrées par produit, région, commune, unité, qualité et prix, " +
+                    "triées par prix croissant ou par date de publication, paginées par curseur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Offres récupérées avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide")
+    })
+    public ResponseEntity<ApiResponseWrapper<OffrePageCurseurDTO>> parcourirOffres(
+            @ModelAttribute OffreFiltreRequest filtre,
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int size) {
+
+        OffrePageCurseurDTO page = offreMarcheService.parcourirOffres(filtre, curseur, size);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<OffrePageCurseurDTO>builder()
+                .success(true)
+                .message("Offres récupérées avec succès")
+                .data(page)
+                .build());
+    }
+
+    @GetMapping("/public/offres/proximite")
+    @Operation(summary = "Offres à proximité",
+            description = "Offres disponibles dans un rayon (km) autour d'un point, triées par distance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Offres récupérées avec succès"),
+            @ApiResponse(responseCode = "400", description = "Coordonnées ou rayon invalides")
+    })
+    public ResponseEntity<ApiResponseWrapper<List<ElementProximiteDTO<OffreResumeDTO>>>> getOffresProches(
+            @Parameter(description = "Latitude du point") @RequestParam double latitude,
+            @Parameter(description = "Longitude du point") @RequestParam double longitude,
+            @Parameter(description = "Rayon en kilomètres (200 max)") @RequestParam(defaultValue = "50") double rayonKm,
+            @Parameter(description = "Produit recherché") @RequestParam(required = false) String produit,
+            @Parameter(description = "Nombre maximum de résultats") @RequestParam(defaultValue = "50") int limite) {
+
+        List<ElementProximiteDTO<OffreResumeDTO>> offres = offreMarcheService.offresProches(
+                latitude, longitude, rayonKm, produit, limite);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<List<ElementProximiteDTO<OffreResumeDTO>>>builder()
+                .success(true)
+                .message("Offres récupérées avec succès")
+                .data(offres)
+                .build());
+    }
+
+    @GetMapping("/public/offres/{id}")
+    @Operation(summary = "Détails d'une offre", description = "Récupère le détail d'une offre et les coordonnées du vendeur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Offre trouvée"),
+            @ApiResponse(responseCode = "404", description = "Offre non trouvée")
+    })
+    public ResponseEntity<ApiResponseWrapper<OffreDTO>> getOffre(
+            @Parameter(description = "ID de l'offre") @PathVariable Long id) {
+
+        OffreDTO offre = offreMarcheService.getOffre(id);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<OffreDTO>builder()
+                .success(true)
+                .message("Offre récupérée avec succès")
+                .data(offre)
+                .build());
+    }
+
+    // =============================================
+    // GESTION DES OFFRES (AGRICULTEUR)
+    // =============================================
+
+    @PostMapping("/agriculteur/offres")
+    @Operation(summary = "Publier une offre", description = "Publie une offre de vente sur le marché")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Offre publiée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Données invalides"),
+            @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    public ResponseEntity<ApiResponseWrapper<OffreDTO>> publierOffre(
+            @Valid @RequestBody CreateOffreRequest request,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        OffreDTO offre = offreMarcheService.publierOffre(agriculteurId, request);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponseWrapper.<OffreDTO>builder()
+                        .success(true)
+                        .message("Offre publiée avec succès")
+                        .data(offre)
+                        .build());
+    }
+
+    @GetMapping("/agriculteur/offres")
+    @Operation(summary = "Lister mes offres", description = "Récupère toutes les offres publiées par l'agriculteur connecté")
+    public ResponseEntity<ApiResponseWrapper<List<OffreResumeDTO>>> getMesOffres(Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        List<OffreResumeDTO> offres = offreMarcheService.getMesOffres(agriculteurId);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<List<OffreResumeDTO>>builder()
+                .success(true)
+                .message("Offres récupérées avec succès")
+                .data(offres)
+                .build());
+    }
+
+    @GetMapping("/agriculteur/offres/{id}/acheteurs")
+    @Operation(summary = "Acheteurs intéressés",
+            description = "Acheteurs dont les produits recherchés, la zone d'achat, le prix maximum " +
+                    "et les exigences de certification correspondent à l'offre")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Acheteurs récupérés avec succès"),
+            @ApiResponse(responseCode = "404", description = "Offre non trouvée")
+    })
+    public ResponseEntity<ApiResponseWrapper<List<AcheteurCorrespondantDTO>>> getAcheteursCorrespondants(
+            @Parameter(description = "ID de l'offre") @PathVariable Long id,
+            @Parameter(description = "Nombre maximum d'acheteurs") @RequestParam(defaultValue = "50") int limite,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        List<AcheteurCorrespondantDTO> acheteurs =
+                offreMarcheService.getAcheteursCorrespondants(agriculteurId, id, limite);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<List<AcheteurCorrespondantDTO>>builder()
+                .success(true)
+                .message("Acheteurs récupérés avec succès")
+                .data(acheteurs)
+                .build());
+    }
+
+    @PutMapping("/agriculteur/offres/{id}")
+    @Operation(summary = "Modifier une offre", description = "Modifie une offre publiée par l'agriculteur connecté")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Offre modifiée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Données invalides"),
+            @ApiResponse(responseCode = "404", description = "Offre non trouvée")
+    })
+    public ResponseEntity<ApiResponseWrapper<OffreDTO>> modifierOffre(
+            @Parameter(description = "ID de l'offre") @PathVariable Long id,
+            @Valid @RequestBody UpdateOffreRequest request,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        OffreDTO offre = offreMarcheService.modifierOffre(agriculteurId, id, request);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<OffreDTO>builder()
+                .success(true)
+                .message("Offre modifiée avec succès")
+                .data(offre)
+                .build());
+    }
+
+    @PutMapping("/agriculteur/offres/{id}/statut")
+    @Operation(summary = "Changer le statut d'une offre", description = "Marque une offre comme réservée, vendue, suspendue...")
+    public ResponseEntity<ApiResponseWrapper<OffreDTO>> changerStatut(
+            @Parameter(description = "ID de l'offre") @PathVariable Long id,
+            @Parameter(description = "Nouveau statut") @RequestParam StatutOffreEnum statut,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        OffreDTO offre = offreMarcheService.changerStatut(agriculteurId, id, statut);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<OffreDTO>builder()
+                .success(true)
+                .message("Statut mis à jour avec succès")
+                .data(offre)
+                .build());
+    }
+
+    @DeleteMapping("/agriculteur/offres/{id}")
+    @Operation(summary = "Supprimer une offre", description = "Supprime définitivement une offre")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Offre supprimée avec succès"),
+            @ApiResponse(responseCode = "404", description = "Offre non trouvée")
+    })
+    public ResponseEntity<ApiResponseWrapper<String>> supprimerOffre(
+            @Parameter(description = "ID de l'offre") @PathVariable Long id,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        offreMarcheService.supprimerOffre(agriculteurId, id);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<String>builder()
+                .success(true)
+                .message("Offre supprimée avec succès")
+                .data("Offre supprimée définitivement")
+                .build());
+    }
+
+    // =============================================
+    // MÉTHODES UTILITAIRES
+    // =============================================
+
+    private Long getCurrentAgriculteurId(Authentication authentication) {
+        CustomUserDetailsService.CustomUserPrincipal userPrincipal =
+                (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+        return userPrincipal.getUserId();
+    }
+}
@@ -4,9 +4,12 @@ package com.agriculture.mauritanie.controller;
 import com.agriculture.mauritanie.dto.auth.ApiResponseWrapper;
 import com.agriculture.mauritanie.dto.dashboard.DashboardAgriculteurDTO;
 import com.agriculture.mauritanie.dto.dashboard.StatistiquesAgriculteurDTO;
+import com.agriculture.mauritanie.dto.geo.ElementProximiteDTO;
 import com.agriculture.mauritanie.dto.parcelle.*;
 import com.agriculture.mauritanie.entity.StatutCultureEnum;
 import com.agriculture.mauritanie.service.DashboardService;
+import com.agriculture.mauritanie.service.ParcelleExportService;
+import com.agriculture.mauritanie.service.ParcelleImportService;
 import com.agriculture.mauritanie.service.ParcelleService;
 import com.agriculture.mauritanie.service.CustomUserDetailsService;
 
@@ -20,11 +23,20 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -38,6 +50,8 @@ public class ParcelleController {
 
     private final ParcelleService parcelleService;
     private final DashboardService dashboardService;
+    private final ParcelleExportService parcelleExportService;
+    private final ParcelleImportService parcelleImportService;
 
     // =============================================
     // GESTION DES PARCELLES
@@ -69,6 +83,49 @@ public class ParcelleController {
                         .build());
     }
 
+    @PostMapping(value = "/parcelles/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Importer des parcelles (JSON)",
+            description = "Crée des parcelles en masse ; les lignes invalides sont ignorées et listées dans le rapport")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import effectué, rapport par ligne"),
+            @ApiResponse(responseCode = "400", description = "Nombre de lignes dépassé"),
+            @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    public ResponseEntity<ApiResponseWrapper<ImportParcellesResultatDTO>> importerParcelles(
+            @RequestBody List<CreateParcelleRequest> parcelles,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        ImportParcellesResultatDTO resultat = parcelleImportService.importer(agriculteurId, parcelles);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<ImportParcellesResultatDTO>builder()
+                .success(true)
+                .message(resultat.getImportees() + " parcelles importées, " + resultat.getRejetees() + " rejetées")
+                .data(resultat)
+                .build());
+    }
+
+    @PostMapping(value = "/parcelles/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Importer des parcelles (CSV)",
+            description = "Fichier CSV avec en-tête (nomParcelle, surfaceHectares, typeCulture, commune, region, " +
+                    "latitude, longitude, datePlantation, dateRecoltePrevue, statutCulture, irrigation, notes)")
+    public ResponseEntity<ApiResponseWrapper<ImportParcellesResultatDTO>> importerParcellesCsv(
+            @RequestParam("fichier") MultipartFile fichier,
+            Authentication authentication) throws IOException {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        ImportParcellesResultatDTO resultat;
+        try (Reader reader = new InputStreamReader(fichier.getInputStream(), StandardCharsets.UTF_8)) {
+            resultat = parcelleImportService.importerCsv(agriculteurId, reader);
+        }
+
+        return ResponseEntity.ok(ApiResponseWrapper.<ImportParcellesResultatDTO>builder()
+                .success(true)
+                .message(resultat.getImportees() + " parcelles importées, " + resultat.getRejetees() + " rejetées")
+                .data(resultat)
+                .build());
+    }
+
     @GetMapping("/parcelles")
     @Operation(summary = "Lister mes parcelles",
             description = "Récupère toutes les parcelles de l'agriculteur connecté")
@@ -109,6 +166,54 @@ public class ParcelleController {
                 .build());
     }
 
+    @GetMapping("/parcelles/curseur")
+    @Operation(summary = "Lister mes parcelles par curseur",
+            description = "Pagination par curseur opaque (plus récentes d'abord), sans surcoût en profondeur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page récupérée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Curseur invalide"),
+            @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    public ResponseEntity<ApiResponseWrapper<ParcellePageCurseurDTO>> getMesParcellesParCurseur(
+            @Parameter(description = "Curseur renvoyé par la page précédente") @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        ParcellePageCurseurDTO page = parcelleService.getMesParcellesParCurseur(agriculteurId, curseur, size);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<ParcellePageCurseurDTO>builder()
+                .success(true)
+                .message("Parcelles récupérées avec succès")
+                .data(page)
+                .build());
+    }
+
+    @GetMapping("/parcelles/export")
+    @Operation(summary = "Exporter mes parcelles",
+            description = "Exporte toutes les parcelles en flux continu, au format NDJSON (une parcelle par ligne) ou CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export en cours de transmission"),
+            @ApiResponse(responseCode = "400", description = "Format non supporté"),
+            @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    public ResponseEntity<StreamingResponseBody> exporterParcelles(
+            @Parameter(description = "Format d'export (ndjson ou csv)") @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        ParcelleExportService.Format formatExport = ParcelleExportService.format(format);
+        log.info("Export {} des parcelles pour l'agriculteur: {}", formatExport, agriculteurId);
+
+        StreamingResponseBody corps = parcelleExportService.exporter(agriculteurId, formatExport);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatExport.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"parcelles." + formatExport.getExtension() + "\"")
+                .body(corps);
+    }
+
     @GetMapping("/parcelles/{id}")
     @Operation(summary = "Détails d'une parcelle",
             description = "Récupère les détails complets d'une parcelle spécifique")
@@ -229,6 +334,36 @@ public class ParcelleController {
                 .build());
     }
 
+    @GetMapping("/parcelles/filtre")
+    @Operation(summary = "Filtrer des parcelles",
+            description = "Combine librement type de culture, statut, région, commune, irrigation, " +
+                    "plage de surface et plages de dates, avec pagination et tri")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Filtrage effectué avec succès"),
+            @ApiResponse(responseCode = "400", description = "Critère de tri invalide"),
+            @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    public ResponseEntity<ApiResponseWrapper<Page<ParcelleResumeDTO>>> filtrerParcelles(
+            @ModelAttribute ParcelleFiltreRequest filtre,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Champ de tri") @RequestParam(defaultValue = "dateCreation") String tri,
+            @Parameter(description = "Sens du tri") @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        log.info("Filtrage des parcelles pour l'agriculteur: {}", agriculteurId);
+
+        Page<ParcelleResumeDTO> parcelles = parcelleService.filtrerParcelles(
+                agriculteurId, filtre, page, size, tri, direction);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<Page<ParcelleResumeDTO>>builder()
+                .success(true)
+                .message("Filtrage effectué avec succès")
+                .data(parcelles)
+                .build());
+    }
+
     @GetMapping("/parcelles/recherche-texte")
     @Operation(summary = "Recherche textuelle",
             description = "Recherche dans le nom, type de culture et notes des parcelles")
@@ -248,6 +383,31 @@ public class ParcelleController {
                 .build());
     }
 
+    @GetMapping("/parcelles/proximite")
+    @Operation(summary = "Parcelles à proximité",
+            description = "Parcelles situées dans un rayon (km) autour d'un point, triées par distance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Recherche effectuée avec succès"),
+            @ApiResponse(responseCode = "400", description = "Coordonnées ou rayon invalides")
+    })
+    public ResponseEntity<ApiResponseWrapper<List<ElementProximiteDTO<ParcelleResumeDTO>>>> getParcellesProches(
+            @Parameter(description = "Latitude du point") @RequestParam double latitude,
+            @Parameter(description = "Longitude du point") @RequestParam double longitude,
+            @Parameter(description = "Rayon en kilomètres (200 max)") @RequestParam(defaultValue = "50") double rayonKm,
+            @Parameter(description = "Nombre maximum de résultats") @RequestParam(defaultValue = "50") int limite,
+            Authentication authentication) {
+
+        Long agriculteurId = getCurrentAgriculteurId(authentication);
+        List<ElementProximiteDTO<ParcelleResumeDTO>> parcelles = parcelleService.parcellesProches(
+                agriculteurId, latitude, longitude, rayonKm, limite);
+
+        return ResponseEntity.ok(ApiResponseWrapper.<List<ElementProximiteDTO<ParcelleResumeDTO>>>builder()
+                .success(true)
+                .message("Recherche effectuée avec succès")
+                .data(parcelles)
+                .build());
+    }
+
     // =============================================
     // TABLEAU DE BORD ET STATISTIQUES
     // =============================================
@@ -0,0 +1,23 @@
+package com.agriculture.mauritanie.dto.appariement;
+
+import lombok.Data;
+import lombok.Builder;
+
+/**
+ * Acheteur dont le profil correspond à une offre
+ */
+@Data
+@Builder
+public class AcheteurCorrespondantDTO {
+    private Long id;
+    private String nom;
+    private String telephone;
+    private String entreprise;
+    private String typeAchat;
+    private String commune;
+    private String region;
+    private Double volumeMensuel;
+    private Double prixMaximum;
+    private Boolean transportAssure;
+    private boolean zoneCiblee; // la région de l'offre figure explicitement dans sa zone d'achat
+}
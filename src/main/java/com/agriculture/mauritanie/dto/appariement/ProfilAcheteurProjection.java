@@ -0,0 +1,18 @@
+package com.agriculture.mauritanie.dto.appariement;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Champs d'un acheteur utiles à l'appariement (projection constructeur, sans hydratation d'entité)
+ */
+@Getter
+@AllArgsConstructor
+public class ProfilAcheteurProjection {
+    private Long id;
+    private String produitsRecherches;
+    private String zoneAchat;
+    private Double prixMaximum;
+    private Boolean certificationRequise;
+    private Double volumeMensuel;
+}
@@ -0,0 +1,28 @@
+package com.agriculture.mauritanie.dto.dashboard;
+
+import com.agriculture.mauritanie.entity.DimensionStatEnum;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+public class CoherenceStatsDTO {
+
+    private Long agriculteurId;
+    private boolean coherent;
+    private List<EcartDTO> ecarts;
+
+    @Data
+    @Builder
+    public static class EcartDTO {
+        private DimensionStatEnum dimension;
+        private String cle;
+        private Long nombreAttendu;
+        private Long nombreStocke;
+        private BigDecimal surfaceAttendue;
+        private BigDecimal surfaceStockee;
+    }
+}
@@ -0,0 +1,20 @@
+package com.agriculture.mauritanie.dto.geo;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Élément d'un résultat de recherche par proximité, avec sa distance au point demandé
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ElementProximiteDTO<T> {
+
+    @JsonUnwrapped
+    private T element;
+
+    private double distanceKm;
+}
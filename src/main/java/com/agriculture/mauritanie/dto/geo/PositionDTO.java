@@ -0,0 +1,17 @@
+package com.agriculture.mauritanie.dto.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Coordonnées d'une offre ou d'une parcelle candidate (projection du préfiltre géographique)
+ */
+@Getter
+@AllArgsConstructor
+public class PositionDTO {
+    private Long id;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+}
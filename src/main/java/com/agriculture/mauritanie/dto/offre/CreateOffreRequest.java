@@ -0,0 +1,45 @@
+package com.agriculture.mauritanie.dto.offre;
+
+import com.agriculture.mauritanie.entity.CertificationEnum;
+import com.agriculture.mauritanie.entity.QualiteEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class CreateOffreRequest {
+
+    @NotBlank(message = "Le produit est obligatoire")
+    private String produit;
+
+    private String variete;
+
+    @NotNull(message = "La quantité est obligatoire")
+    @DecimalMin(value = "0.01", message = "La quantité doit être positive")
+    private BigDecimal quantite;
+
+    @NotNull(message = "L'unité est obligatoire")
+    private UniteEnum unite;
+
+    @NotNull(message = "Le prix est obligatoire")
+    @DecimalMin(value = "0.01", message = "Le prix doit être positif")
+    private BigDecimal prixUnitaire;
+
+    private Boolean prixNegociable = true;
+    private String commune;
+    private String region;
+    private String description;
+    private QualiteEnum qualite = QualiteEnum.STANDARD;
+    private CertificationEnum certification = CertificationEnum.TRADITIONNEL;
+    private LocalDate dateRecolte;
+    private LocalDate dateRecoltePrevue;
+    private LocalDateTime dateExpiration;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+}
@@ -0,0 +1,45 @@
+package com.agriculture.mauritanie.dto.offre;
+
+import com.agriculture.mauritanie.entity.CertificationEnum;
+import com.agriculture.mauritanie.entity.QualiteEnum;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class OffreDTO {
+    private Long id;
+    private String produit;
+    private String variete;
+    private BigDecimal quantite;
+    private UniteEnum unite;
+    private String uniteLibelle;
+    private BigDecimal prixUnitaire;
+    private Boolean prixNegociable;
+    private BigDecimal montantTotal;
+    private String commune;
+    private String region;
+    private String description;
+    private QualiteEnum qualite;
+    private CertificationEnum certification;
+    private LocalDate dateRecolte;
+    private LocalDate dateRecoltePrevue;
+    private LocalDateTime dateExpiration;
+    private StatutOffreEnum statut;
+    private String statutLibelle;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private Integer nombreVues;
+    private Integer nombreAcheteursInteresses; // renseigné à la publication et à la modification
+    private Long vendeurId;
+    private String vendeurNom;
+    private String vendeurTelephone;
+    private LocalDateTime datePublication;
+    private LocalDateTime dateModification;
+}
@@ -0,0 +1,30 @@
+package com.agriculture.mauritanie.dto.offre;
+
+import com.agriculture.mauritanie.entity.CertificationEnum;
+import com.agriculture.mauritanie.entity.QualiteEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Critères de consultation des offres disponibles ; les critères absents sont ignorés
+ */
+@Data
+public class OffreFiltreRequest {
+
+    public enum Tri {
+        PRIX,
+        RECENT
+    }
+
+    private String produit;
+    private String region;
+    private String commune;
+    private UniteEnum unite;
+    private QualiteEnum qualite;
+    private CertificationEnum certification;
+    private BigDecimal prixMin;
+    private BigDecimal prixMax;
+    private Tri tri = Tri.PRIX;
+}
@@ -0,0 +1,18 @@
+package com.agriculture.mauritanie.dto.offre;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Page d'offres paginée par curseur (sans OFFSET ni COUNT)
+ */
+@Data
+@Builder
+public class OffrePageCurseurDTO {
+    private List<OffreResumeDTO> offres;
+    private String curseurSuivant;
+    private boolean aSuivant;
+    private int taille;
+}
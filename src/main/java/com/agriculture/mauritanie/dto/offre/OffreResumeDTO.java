@@ -0,0 +1,31 @@
+package com.agriculture.mauritanie.dto.offre;
+
+import com.agriculture.mauritanie.entity.QualiteEnum;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vue liste d'une offre, construite directement par projection (sans description ni vendeur)
+ */
+@Data
+@AllArgsConstructor
+public class OffreResumeDTO {
+    private Long id;
+    private String produit;
+    private String variete;
+    private BigDecimal quantite;
+    private UniteEnum unite;
+    private BigDecimal prixUnitaire;
+    private Boolean prixNegociable;
+    private String commune;
+    private String region;
+    private QualiteEnum qualite;
+    private StatutOffreEnum statut;
+    private LocalDateTime datePublication;
+    private LocalDateTime dateExpiration;
+}
@@ -0,0 +1,26 @@
+package com.agriculture.mauritanie.dto.parcelle;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Rapport d'import en masse : les lignes valides sont insérées, les autres listées avec leurs erreurs
+ */
+@Data
+@Builder
+public class ImportParcellesResultatDTO {
+    private int totalLignes;
+    private int importees;
+    private int rejetees;
+    private List<ErreurLigneDTO> erreurs;
+
+    @Data
+    @Builder
+    public static class ErreurLigneDTO {
+        private int ligne;
+        private String nomParcelle;
+        private List<String> messages;
+    }
+}
@@ -0,0 +1,34 @@
+package com.agriculture.mauritanie.dto.parcelle;
+
+import com.agriculture.mauritanie.entity.StatutCultureEnum;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Critères combinables de filtrage des parcelles ; les critères absents sont ignorés
+ */
+@Data
+public class ParcelleFiltreRequest {
+    private String typeCulture;
+    private StatutCultureEnum statut;
+    private String region;
+    private String commune;
+    private Boolean irrigation;
+    private BigDecimal surfaceMin;
+    private BigDecimal surfaceMax;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate datePlantationDebut;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate datePlantationFin;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateRecolteDebut;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateRecolteFin;
+}
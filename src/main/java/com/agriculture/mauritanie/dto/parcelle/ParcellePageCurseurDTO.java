@@ -0,0 +1,18 @@
+package com.agriculture.mauritanie.dto.parcelle;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Page de parcelles paginée par curseur (sans OFFSET ni COUNT)
+ */
+@Data
+@Builder
+public class ParcellePageCurseurDTO {
+    private List<ParcelleResumeDTO> parcelles;
+    private String curseurSuivant;
+    private boolean aSuivant;
+    private int taille;
+}
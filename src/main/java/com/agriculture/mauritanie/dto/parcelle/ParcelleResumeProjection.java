@@ -0,0 +1,46 @@
+package com.agriculture.mauritanie.dto.parcelle;
+
+import com.agriculture.mauritanie.entity.StatutCultureEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Colonnes du résumé de parcelle, lues par projection (sans entité gérée ni colonne notes)
+ */
+@Getter
+@AllArgsConstructor
+public class ParcelleResumeProjection {
+    private final Long id;
+    private final String nomParcelle;
+    private final BigDecimal surfaceHectares;
+    private final String typeCulture;
+    private final String commune;
+    private final StatutCultureEnum statutCulture;
+    private final LocalDate datePlantation;
+    private final LocalDate dateRecoltePrevue;
+    private final Boolean irrigation;
+    private final LocalDateTime dateCreation;
+
+    public ParcelleResumeDTO versResumeDTO() {
+        return ParcelleResumeDTO.builder()
+                .id(id)
+                .nomParcelle(nomParcelle)
+                .surfaceHectares(surfaceHectares)
+                .typeCulture(typeCulture)
+                .commune(commune)
+                .statutCulture(statutCulture)
+                .statutCultureLibelle(statutCulture != null ? statutCulture.getLibelle() : null)
+                .datePlantation(datePlantation)
+                .dateRecoltePrevue(dateRecoltePrevue)
+                .irrigation(irrigation)
+                .joursAvantRecolte(dateRecoltePrevue != null
+                        ? (int) ChronoUnit.DAYS.between(LocalDate.now(), dateRecoltePrevue)
+                        : null)
+                .build();
+    }
+}
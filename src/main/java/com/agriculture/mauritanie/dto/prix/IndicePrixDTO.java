@@ -0,0 +1,25 @@
+package com.agriculture.mauritanie.dto.prix;
+
+import com.agriculture.mauritanie.entity.UniteEnum;
+import lombok.Data;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+/**
+ * Prix observés pour un produit dans une région, sur les offres disponibles de la fenêtre glissante.
+ * KG et TONNE sont ramenés au kilogramme ; les autres unités sont indexées séparément.
+ */
+@Data
+@Builder
+public class IndicePrixDTO {
+    private String produit;
+    private String region;
+    private UniteEnum unite;
+    private String uniteLibelle;
+    private long nombreOffres;
+    private BigDecimal prixMin;
+    private BigDecimal prixMedian; // estimée à ±1 %, min et max sont exacts
+    private BigDecimal prixMax;
+    private BigDecimal volume; // quantité cumulée, dans l'unité indiquée
+}
@@ -0,0 +1,21 @@
+package com.agriculture.mauritanie.dto.prix;
+
+import com.agriculture.mauritanie.entity.UniteEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Champs d'une offre utiles à l'indice des prix (projection constructeur)
+ */
+@Getter
+@AllArgsConstructor
+public class PrixOffreProjection {
+    private Long id;
+    private String produit;
+    private String region;
+    private UniteEnum unite;
+    private BigDecimal prixUnitaire;
+    private BigDecimal quantite;
+}
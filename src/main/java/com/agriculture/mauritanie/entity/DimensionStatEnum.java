@@ -0,0 +1,21 @@
+package com.agriculture.mauritanie.entity;
+
+public enum DimensionStatEnum {
+    TOTAL("Total"),
+    STATUT("Statut de culture"),
+    TYPE_CULTURE("Type de culture"),
+    REGION("Région"),
+    COMMUNE("Commune"),
+    IRRIGATION("Irrigation"),
+    MOIS_PLANTATION("Mois de plantation");
+
+    private final String libelle;
+
+    DimensionStatEnum(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+}
@@ -15,7 +15,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "offres_marche")
+@Table(name = "offres_marche", indexes = {
+        @Index(name = "idx_offres_statut_produit_region_prix", columnList = "statut, produit, region, prix_unitaire"),
+        @Index(name = "idx_offres_statut_prix", columnList = "statut, prix_unitaire, id"),
+        @Index(name = "idx_offres_statut_publication", columnList = "statut, date_publication, id"),
+        @Index(name = "idx_offres_vendeur", columnList = "vendeur_id, date_publication"),
+        @Index(name = "idx_offres_statut_expiration", columnList = "statut, date_expiration, id"),
+        @Index(name = "idx_offres_statut_position", columnList = "statut, latitude, longitude, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -82,7 +89,8 @@ public class OffreMarche {
     @Column(precision = 11, scale = 8)
     private BigDecimal longitude;
 
-    @Column(name = "nombre_vues")
+    // Écrit uniquement par OffreVuesCompteur (incrément SQL) : un UPDATE de l'entité ne l'écrase pas
+    @Column(name = "nombre_vues", updatable = false)
     private Integer nombreVues = 0;
 
     // Relation avec Agriculteur
@@ -107,6 +115,10 @@ public class OffreMarche {
         return dateExpiration != null && LocalDateTime.now().isAfter(dateExpiration);
     }
 
+    /**
+     * Incrément en mémoire uniquement (colonne non modifiable par JPA).
+     * Les vues sont persistées par OffreVuesCompteur.
+     */
     public void incrementerVues() {
         this.nombreVues++;
     }
@@ -15,7 +15,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "parcelles")
+@Table(name = "parcelles", indexes = {
+        @Index(name = "idx_parcelles_agriculteur_creation", columnList = "agriculteur_id, date_creation, id"),
+        @Index(name = "idx_parcelles_agriculteur_statut", columnList = "agriculteur_id, statut_culture, date_recolte_prevue"),
+        @Index(name = "idx_parcelles_agriculteur_culture", columnList = "agriculteur_id, type_culture"),
+        @Index(name = "idx_parcelles_agriculteur_localisation", columnList = "agriculteur_id, region, commune"),
+        @Index(name = "idx_parcelles_agriculteur_recolte", columnList = "agriculteur_id, date_recolte_prevue"),
+        @Index(name = "idx_parcelles_agriculteur_position", columnList = "agriculteur_id, latitude, longitude")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,30 @@
+package com.agriculture.mauritanie.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * État de l'index de recherche d'un agriculteur. La ligne sert de verrou pendant l'indexation ;
+ * complet passe à vrai une fois toutes ses parcelles indexées. Maintenu par ParcelleRechercheService.
+ */
+@Entity
+@Table(name = "parcelle_indexations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelleIndexation {
+
+    @Id
+    @Column(name = "agriculteur_id")
+    private Long agriculteurId;
+
+    @Column(nullable = false)
+    private Boolean complet = false;
+
+    @Column(name = "date_indexation")
+    private LocalDateTime dateIndexation;
+}
@@ -0,0 +1,29 @@
+package com.agriculture.mauritanie.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Agrégat matérialisé des parcelles d'un agriculteur, une ligne par
+ * (agriculteur, dimension, clé). Maintenu par ParcelleStatsService.
+ */
+@Entity
+@Table(name = "parcelle_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelleStat {
+
+    @EmbeddedId
+    private ParcelleStatId id;
+
+    @Column(nullable = false)
+    private Long nombre = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal surface = BigDecimal.ZERO;
+}
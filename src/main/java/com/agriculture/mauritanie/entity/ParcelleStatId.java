@@ -0,0 +1,28 @@
+package com.agriculture.mauritanie.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelleStatId implements Serializable {
+
+    @Column(name = "agriculteur_id", nullable = false)
+    private Long agriculteurId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false, length = 20)
+    private DimensionStatEnum dimension;
+
+    @Column(name = "cle", nullable = false, length = 100)
+    private String cle;
+}
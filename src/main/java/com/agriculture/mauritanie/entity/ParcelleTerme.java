@@ -0,0 +1,37 @@
+package com.agriculture.mauritanie.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Index inversé de la recherche textuelle : un terme normalisé par parcelle,
+ * pondéré selon le champ d'origine. Maintenu par ParcelleRechercheService.
+ */
+@Entity
+@Table(name = "parcelle_termes", indexes = {
+        @Index(name = "idx_parcelle_termes_recherche", columnList = "agriculteur_id, terme"),
+        @Index(name = "idx_parcelle_termes_parcelle", columnList = "parcelle_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelleTerme {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "parcelle_id", nullable = false)
+    private Long parcelleId;
+
+    @Column(name = "agriculteur_id", nullable = false)
+    private Long agriculteurId;
+
+    @Column(nullable = false, length = 100)
+    private String terme;
+
+    @Column(nullable = false)
+    private Integer poids;
+}
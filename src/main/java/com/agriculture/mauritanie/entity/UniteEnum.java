@@ -2,21 +2,30 @@
 package com.agriculture.mauritanie.entity;
 
 public enum UniteEnum {
-    KG("Kilogramme"),
-    TONNE("Tonne"),
-    SAC("Sac"),
-    PIECE("Pièce"),
-    LITRE("Litre"),
-    CAISSE("Caisse");
+    KG("Kilogramme", 1.0),
+    TONNE("Tonne", 1000.0),
+    SAC("Sac", null),
+    PIECE("Pièce", null),
+    LITRE("Litre", null),
+    CAISSE("Caisse", null);
 
     private final String libelle;
+    private final Double kilogrammes; // null : unité sans équivalence en poids fixe
 
-    UniteEnum(String libelle) {
+    UniteEnum(String libelle, Double kilogrammes) {
         this.libelle = libelle;
+        this.kilogrammes = kilogrammes;
     }
 
     public String getLibelle() {
         return libelle;
     }
-}
 
+    public Double getKilogrammes() {
+        return kilogrammes;
+    }
+
+    public boolean isConvertibleEnKg() {
+        return kilogrammes != null;
+    }
+}
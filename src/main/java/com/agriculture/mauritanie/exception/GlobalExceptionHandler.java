@@ -2,6 +2,7 @@ package com.agriculture.mauritanie.exception;
 
 import com.agriculture.mauritanie.dto.auth.ApiResponseWrapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -63,6 +64,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponseWrapper<Object>> handleServiceUnavailableException(
+            ServiceUnavailableException ex, WebRequest request) {
+
+        log.warn("Service indisponible ({}): {}", ex.getServiceName(), ex.getMessage());
+
+        ApiResponseWrapper<Object> response = ApiResponseWrapper.builder()
+                .success(false)
+                .message(ex.getMessage())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ApiResponseWrapper<Map<String, String>>> handleValidationException(
             ValidationException ex, WebRequest request) {
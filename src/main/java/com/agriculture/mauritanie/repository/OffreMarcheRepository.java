@@ -0,0 +1,97 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.dto.geo.PositionDTO;
+import com.agriculture.mauritanie.dto.offre.OffreResumeDTO;
+import com.agriculture.mauritanie.dto.prix.PrixOffreProjection;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.OffreMarche;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OffreMarcheRepository extends JpaRepository<OffreMarche, Long>, OffreMarcheRepositoryCustom {
+
+    // Colonnes de la vue liste (projection constructeur)
+    String RESUME = "new com.agriculture.mauritanie.dto.offre.OffreResumeDTO(" +
+            "o.id, o.produit, o.variete, o.quantite, o.unite, o.prixUnitaire, o.prixNegociable, " +
+            "o.commune, o.region, o.qualite, o.statut, o.datePublication, o.dateExpiration)";
+
+    // Offres d'un vendeur, toutes statuts confondus
+    @Query("SELECT " + RESUME + " FROM OffreMarche o WHERE o.vendeur = :vendeur " +
+            "ORDER BY o.datePublication DESC, o.id DESC")
+    List<OffreResumeDTO> findResumesByVendeur(@Param("vendeur") Agriculteur vendeur);
+
+    // Vérifier qu'une offre appartient bien au vendeur
+    Optional<OffreMarche> findByIdAndVendeur(Long id, Agriculteur vendeur);
+
+    // Détail public : vendeur chargé dans la même requête, entité non suivie par le contexte
+    @EntityGraph(attributePaths = "vendeur")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT o FROM OffreMarche o WHERE o.id = :id")
+    Optional<OffreMarche> findDetailById(@Param("id") Long id);
+
+    // Préfiltre de la recherche par proximité (index idx_offres_statut_position)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.agriculture.mauritanie.dto.geo.PositionDTO(o.id, o.latitude, o.longitude) " +
+            "FROM OffreMarche o WHERE o.statut = :statut " +
+            "AND o.latitude BETWEEN :latMin AND :latMax AND o.longitude BETWEEN :lonMin AND :lonMax " +
+            "AND (:produit IS NULL OR o.produit = :produit)")
+    List<PositionDTO> findPositionsDansBoite(@Param("statut") StatutOffreEnum statut,
+                                             @Param("latMin") BigDecimal latMin,
+                                             @Param("latMax") BigDecimal latMax,
+                                             @Param("lonMin") BigDecimal lonMin,
+                                             @Param("lonMax") BigDecimal lonMax,
+                                             @Param("produit") String produit);
+
+    @Query("SELECT " + RESUME + " FROM OffreMarche o WHERE o.id IN :ids")
+    List<OffreResumeDTO> findResumesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Reconstruction de l'indice des prix (offres disponibles de la fenêtre glissante)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.agriculture.mauritanie.dto.prix.PrixOffreProjection(" +
+            "o.id, o.produit, o.region, o.unite, o.prixUnitaire, o.quantite) " +
+            "FROM OffreMarche o WHERE o.statut = :statut AND o.datePublication >= :depuis")
+    List<PrixOffreProjection> findPrixDisponibles(@Param("statut") StatutOffreEnum statut,
+                                                  @Param("depuis") LocalDateTime depuis);
+
+    // Expiration : parcours de l'index idx_offres_statut_expiration
+
+    @Query("SELECT o.id FROM OffreMarche o WHERE o.statut = :statut AND o.dateExpiration <= :date " +
+            "ORDER BY o.dateExpiration, o.id")
+    List<Long> findIdsExpirees(@Param("statut") StatutOffreEnum statut,
+                               @Param("date") LocalDateTime date,
+                               Pageable pageable);
+
+    long countByStatutAndDateExpirationLessThanEqual(StatutOffreEnum statut, LocalDateTime date);
+
+    @Query("SELECT MIN(o.dateExpiration) FROM OffreMarche o WHERE o.statut = :statut AND o.dateExpiration > :date")
+    LocalDateTime findProchaineExpiration(@Param("statut") StatutOffreEnum statut,
+                                          @Param("date") LocalDateTime date);
+
+    // Le statut est revérifié : une offre vendue ou réservée entre-temps n'est pas touchée
+    @Modifying
+    @Query("UPDATE OffreMarche o SET o.statut = com.agriculture.mauritanie.entity.StatutOffreEnum.EXPIRE, " +
+            "o.dateModification = :date " +
+            "WHERE o.id IN :ids AND o.statut = com.agriculture.mauritanie.entity.StatutOffreEnum.DISPONIBLE " +
+            "AND o.dateExpiration <= :date")
+    int expirer(@Param("ids") List<Long> ids, @Param("date") LocalDateTime date);
+
+    // Relu après expirer dans la même transaction : seules les offres réellement expirées quittent l'indice
+    @Query("SELECT o.id FROM OffreMarche o WHERE o.id IN :ids AND o.statut = :statut")
+    List<Long> findIdsByIdInAndStatut(@Param("ids") List<Long> ids, @Param("statut") StatutOffreEnum statut);
+}
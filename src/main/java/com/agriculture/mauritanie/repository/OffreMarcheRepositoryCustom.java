@@ -0,0 +1,32 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.dto.offre.OffreFiltreRequest;
+import com.agriculture.mauritanie.dto.offre.OffreResumeDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultation des offres disponibles par pagination seek, filtres combinables
+ */
+public interface OffreMarcheRepositoryCustom {
+
+    /**
+     * Offres disponibles après la position donnée (null pour la première page), dans l'ordre du tri demandé
+     */
+    List<OffreResumeDTO> parcourir(OffreFiltreRequest filtre, Position apres, int limite);
+
+    /**
+     * Dernière ligne lue : valeur de la clé de tri et identifiant de l'offre
+     */
+    @Getter
+    @AllArgsConstructor
+    class Position {
+        private final BigDecimal prixUnitaire;
+        private final LocalDateTime datePublication;
+        private final Long id;
+    }
+}
@@ -0,0 +1,95 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.dto.offre.OffreFiltreRequest;
+import com.agriculture.mauritanie.dto.offre.OffreResumeDTO;
+import com.agriculture.mauritanie.entity.OffreMarche;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OffreMarcheRepositoryCustomImpl implements OffreMarcheRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OffreResumeDTO> parcourir(OffreFiltreRequest filtre, Position apres, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OffreResumeDTO> query = cb.createQuery(OffreResumeDTO.class);
+        Root<OffreMarche> o = query.from(OffreMarche.class);
+
+        query.select(cb.construct(OffreResumeDTO.class,
+                o.get("id"), o.get("produit"), o.get("variete"), o.get("quantite"), o.get("unite"),
+                o.get("prixUnitaire"), o.get("prixNegociable"), o.get("commune"), o.get("region"),
+                o.get("qualite"), o.get("statut"), o.get("datePublication"), o.get("dateExpiration")));
+
+        // statut en tête : préfixe commun des index idx_offres_*
+        List<Predicate> predicats = new ArrayList<>();
+        // Les offres échues sont passées à EXPIRE par OffreExpirationService : pas de filtre par ligne ici
+        predicats.add(cb.equal(o.get("statut"), StatutOffreEnum.DISPONIBLE));
+
+        if (hasText(filtre.getProduit())) {
+            predicats.add(cb.equal(o.get("produit"), filtre.getProduit()));
+        }
+        if (hasText(filtre.getRegion())) {
+            predicats.add(cb.equal(o.get("region"), filtre.getRegion()));
+        }
+        if (hasText(filtre.getCommune())) {
+            predicats.add(cb.equal(o.get("commune"), filtre.getCommune()));
+        }
+        if (filtre.getUnite() != null) {
+            predicats.add(cb.equal(o.get("unite"), filtre.getUnite()));
+        }
+        if (filtre.getQualite() != null) {
+            predicats.add(cb.equal(o.get("qualite"), filtre.getQualite()));
+        }
+        if (filtre.getCertification() != null) {
+            predicats.add(cb.equal(o.get("certification"), filtre.getCertification()));
+        }
+        if (filtre.getPrixMin() != null) {
+            predicats.add(cb.greaterThanOrEqualTo(o.get("prixUnitaire"), filtre.getPrixMin()));
+        }
+        if (filtre.getPrixMax() != null) {
+            predicats.add(cb.lessThanOrEqualTo(o.get("prixUnitaire"), filtre.getPrixMax()));
+        }
+
+        Path<Long> id = o.get("id");
+        if (filtre.getTri() == OffreFiltreRequest.Tri.RECENT) {
+            Path<LocalDateTime> date = o.get("datePublication");
+            if (apres != null) {
+                predicats.add(cb.or(
+                        cb.lessThan(date, apres.getDatePublication()),
+                        cb.and(cb.equal(date, apres.getDatePublication()), cb.lessThan(id, apres.getId()))));
+            }
+            query.orderBy(cb.desc(date), cb.desc(id));
+        } else {
+            Path<BigDecimal> prix = o.get("prixUnitaire");
+            if (apres != null) {
+                predicats.add(cb.or(
+                        cb.greaterThan(prix, apres.getPrixUnitaire()),
+                        cb.and(cb.equal(prix, apres.getPrixUnitaire()), cb.greaterThan(id, apres.getId()))));
+            }
+            query.orderBy(cb.asc(prix), cb.asc(id));
+        }
+
+        query.where(predicats.toArray(new Predicate[0]));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    private static boolean hasText(String valeur) {
+        return valeur != null && !valeur.isEmpty();
+    }
+}
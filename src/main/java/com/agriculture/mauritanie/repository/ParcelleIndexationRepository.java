@@ -0,0 +1,32 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.entity.ParcelleIndexation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ParcelleIndexationRepository extends JpaRepository<ParcelleIndexation, Long> {
+
+    boolean existsByAgriculteurIdAndCompletTrue(Long agriculteurId);
+
+    // Ligne créée si absente, verrouillée jusqu'à la fin de la transaction
+    @Modifying
+    @Query(value = "INSERT INTO parcelle_indexations (agriculteur_id, complet) VALUES (:agriculteurId, false) " +
+            "ON DUPLICATE KEY UPDATE complet = complet", nativeQuery = true)
+    void verrouiller(@Param("agriculteurId") Long agriculteurId);
+
+    // Lecture courante (FOR UPDATE) : voit une indexation validée par une transaction concurrente
+    @Query(value = "SELECT complet FROM parcelle_indexations WHERE agriculteur_id = :agriculteurId FOR UPDATE",
+            nativeQuery = true)
+    Boolean lireCompletVerrouille(@Param("agriculteurId") Long agriculteurId);
+
+    @Modifying
+    @Query("UPDATE ParcelleIndexation i SET i.complet = true, i.dateIndexation = :date " +
+            "WHERE i.agriculteurId = :agriculteurId")
+    void marquerComplet(@Param("agriculteurId") Long agriculteurId, @Param("date") LocalDateTime date);
+}
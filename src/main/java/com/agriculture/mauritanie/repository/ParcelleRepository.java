@@ -1,29 +1,71 @@
 // ParcelleRepository.java
 package com.agriculture.mauritanie.repository;
 
+import com.agriculture.mauritanie.dto.geo.PositionDTO;
+import com.agriculture.mauritanie.dto.parcelle.ParcelleResumeProjection;
 import com.agriculture.mauritanie.entity.Parcelle;
 import com.agriculture.mauritanie.entity.Agriculteur;
 import com.agriculture.mauritanie.entity.StatutCultureEnum;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ParcelleRepository extends JpaRepository<Parcelle, Long> {
-
-    // Recherche par agriculteur
+public interface ParcelleRepository extends JpaRepository<Parcelle, Long>, JpaSpecificationExecutor<Parcelle>,
+        ParcelleRepositoryCustom {
+
+    // Colonnes du résumé (projection constructeur, sans hydratation d'entité)
+    String RESUME = "new com.agriculture.mauritanie.dto.parcelle.ParcelleResumeProjection(" +
+            "p.id, p.nomParcelle, p.surfaceHectares, p.typeCulture, p.commune, p.statutCulture, " +
+            "p.datePlantation, p.dateRecoltePrevue, p.irrigation, p.dateCreation)";
+
+    // Recherche par agriculteur (lecture seule : pas d'instantané pour le dirty checking)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     List<Parcelle> findByAgriculteurOrderByDateCreationDesc(Agriculteur agriculteur);
 
     Page<Parcelle> findByAgriculteur(Agriculteur agriculteur, Pageable pageable);
 
+    @Query("SELECT " + RESUME + " FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
+            "ORDER BY p.dateCreation DESC, p.id DESC")
+    List<ParcelleResumeProjection> findResumesByAgriculteur(@Param("agriculteur") Agriculteur agriculteur);
+
+    @Query(value = "SELECT " + RESUME + " FROM Parcelle p WHERE p.agriculteur = :agriculteur",
+            countQuery = "SELECT COUNT(p) FROM Parcelle p WHERE p.agriculteur = :agriculteur")
+    Page<ParcelleResumeProjection> findResumesByAgriculteur(@Param("agriculteur") Agriculteur agriculteur,
+                                                             Pageable pageable);
+
+    // Pagination par curseur (seek) sur l'index (agriculteur_id, date_creation, id)
+    @Query("SELECT " + RESUME + " FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
+            "ORDER BY p.dateCreation DESC, p.id DESC")
+    List<ParcelleResumeProjection> findPremierePageByAgriculteur(@Param("agriculteur") Agriculteur agriculteur,
+                                                                 Pageable pageable);
+
+    @Query("SELECT " + RESUME + " FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
+            "AND (p.dateCreation < :dateCreation OR (p.dateCreation = :dateCreation AND p.id < :id)) " +
+            "ORDER BY p.dateCreation DESC, p.id DESC")
+    List<ParcelleResumeProjection> findPageSuivanteByAgriculteur(
+            @Param("agriculteur") Agriculteur agriculteur,
+            @Param("dateCreation") LocalDateTime dateCreation,
+            @Param("id") Long id,
+            Pageable pageable);
+
     // Vérifier qu'une parcelle appartient bien à un agriculteur
     Optional<Parcelle> findByIdAndAgriculteur(Long id, Agriculteur agriculteur);
 
@@ -46,6 +88,12 @@ public interface ParcelleRepository extends JpaRepository<Parcelle, Long> {
     @Query("SELECT COUNT(p) FROM Parcelle p WHERE p.agriculteur = :agriculteur AND p.statutCulture = :statut")
     Long countByAgriculteurAndStatut(@Param("agriculteur") Agriculteur agriculteur, @Param("statut") StatutCultureEnum statut);
 
+    // Agrégat complet du dashboard en une seule requête (un groupe par combinaison de dimensions)
+    @Query("SELECT p.typeCulture, p.statutCulture, p.region, p.commune, p.irrigation, " +
+            "COUNT(p), SUM(p.surfaceHectares) FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
+            "GROUP BY p.typeCulture, p.statutCulture, p.region, p.commune, p.irrigation")
+    List<Object[]> aggregerParAgriculteur(@Param("agriculteur") Agriculteur agriculteur);
+
     // Statistiques par type de culture
     @Query("SELECT p.typeCulture, COUNT(p) FROM Parcelle p WHERE p.agriculteur = :agriculteur GROUP BY p.typeCulture")
     List<Object[]> countByAgriculteurGroupByTypeCulture(@Param("agriculteur") Agriculteur agriculteur);
@@ -71,29 +119,39 @@ public interface ParcelleRepository extends JpaRepository<Parcelle, Long> {
     @Query("SELECT p.commune, SUM(p.surfaceHectares) FROM Parcelle p WHERE p.agriculteur = :agriculteur AND p.commune IS NOT NULL GROUP BY p.commune")
     List<Object[]> sumSurfaceByAgriculteurGroupByCommune(@Param("agriculteur") Agriculteur agriculteur);
 
+    // Séries mensuelles de plantation (nombre et surface par année/mois)
+    @Query("SELECT YEAR(p.datePlantation), MONTH(p.datePlantation), COUNT(p), SUM(p.surfaceHectares) " +
+            "FROM Parcelle p WHERE p.agriculteur = :agriculteur AND p.datePlantation IS NOT NULL " +
+            "GROUP BY YEAR(p.datePlantation), MONTH(p.datePlantation)")
+    List<Object[]> countAndSumByAgriculteurGroupByAnneeMois(@Param("agriculteur") Agriculteur agriculteur);
+
+    // Agriculteurs possédant au moins une parcelle
+    @Query("SELECT DISTINCT p.agriculteur.id FROM Parcelle p")
+    List<Long> findDistinctAgriculteurIds();
+
     // Prochaines récoltes (dans les N prochains jours)
-    @Query("SELECT p FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
+    @Query("SELECT " + RESUME + " FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
             "AND p.dateRecoltePrevue BETWEEN :dateDebut AND :dateFin " +
             "ORDER BY p.dateRecoltePrevue ASC")
-    List<Parcelle> findProchainesRecoltesByAgriculteur(
+    List<ParcelleResumeProjection> findProchainesRecoltesByAgriculteur(
             @Param("agriculteur") Agriculteur agriculteur,
             @Param("dateDebut") LocalDate dateDebut,
             @Param("dateFin") LocalDate dateFin);
 
     // Cultures en retard (date de récolte dépassée)
-    @Query("SELECT p FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
+    @Query("SELECT " + RESUME + " FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
             "AND p.dateRecoltePrevue < :dateActuelle " +
             "AND p.statutCulture NOT IN :statutsTermines " +
             "ORDER BY p.dateRecoltePrevue ASC")
-    List<Parcelle> findCulturesEnRetardByAgriculteur(
+    List<ParcelleResumeProjection> findCulturesEnRetardByAgriculteur(
             @Param("agriculteur") Agriculteur agriculteur,
             @Param("dateActuelle") LocalDate dateActuelle,
             @Param("statutsTermines") List<StatutCultureEnum> statutsTermines);
 
     // Parcelles modifiées récemment
-    @Query("SELECT p FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
+    @Query("SELECT " + RESUME + " FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
             "ORDER BY p.dateModification DESC")
-    List<Parcelle> findRecentlyModifiedByAgriculteur(@Param("agriculteur") Agriculteur agriculteur, Pageable pageable);
+    List<ParcelleResumeProjection> findRecentlyModifiedByAgriculteur(@Param("agriculteur") Agriculteur agriculteur, Pageable pageable);
 
     // Statistiques d'irrigation
     @Query("SELECT COUNT(p) FROM Parcelle p WHERE p.agriculteur = :agriculteur AND p.irrigation = true")
@@ -109,14 +167,24 @@ public interface ParcelleRepository extends JpaRepository<Parcelle, Long> {
     List<Parcelle> findByAgriculteurAndDateRecoltePrevueBetween(
             Agriculteur agriculteur, LocalDate dateDebut, LocalDate dateFin);
 
-    // Recherche textuelle
-    @Query("SELECT p FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
-            "AND (LOWER(p.nomParcelle) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-            "OR LOWER(p.typeCulture) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-            "OR LOWER(p.notes) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    List<Parcelle> searchByAgriculteurAndTerm(
-            @Param("agriculteur") Agriculteur agriculteur,
-            @Param("searchTerm") String searchTerm);
+    // Chargement des résultats de la recherche textuelle (index parcelle_termes)
+    @Query("SELECT " + RESUME + " FROM Parcelle p WHERE p.agriculteur = :agriculteur AND p.id IN :ids")
+    List<ParcelleResumeProjection> findResumesByAgriculteurAndIdIn(@Param("agriculteur") Agriculteur agriculteur,
+                                                                   @Param("ids") Collection<Long> ids);
+
+    // Préfiltre de la recherche par proximité (index idx_parcelles_agriculteur_position)
+    @Query("SELECT new com.agriculture.mauritanie.dto.geo.PositionDTO(p.id, p.latitude, p.longitude) " +
+            "FROM Parcelle p WHERE p.agriculteur = :agriculteur " +
+            "AND p.latitude BETWEEN :latMin AND :latMax AND p.longitude BETWEEN :lonMin AND :lonMax")
+    List<PositionDTO> findPositionsDansBoite(@Param("agriculteur") Agriculteur agriculteur,
+                                             @Param("latMin") BigDecimal latMin,
+                                             @Param("latMax") BigDecimal latMax,
+                                             @Param("lonMin") BigDecimal lonMin,
+                                             @Param("lonMax") BigDecimal lonMax);
+
+    // Noms existants (en minuscules) pour le dédoublonnage de l'import en masse
+    @Query("SELECT LOWER(p.nomParcelle) FROM Parcelle p WHERE p.agriculteur = :agriculteur")
+    List<String> findNomsNormalisesByAgriculteur(@Param("agriculteur") Agriculteur agriculteur);
 
     // Vérification d'unicité du nom pour un agriculteur
     boolean existsByAgriculteurAndNomParcelleIgnoreCase(Agriculteur agriculteur, String nomParcelle);
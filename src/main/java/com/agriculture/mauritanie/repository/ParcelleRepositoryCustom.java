@@ -0,0 +1,29 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.dto.parcelle.ParcelleResumeProjection;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.Parcelle;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Lectures par projection filtrées par Specification (non couvertes par les requêtes dérivées)
+ */
+public interface ParcelleRepositoryCustom {
+
+    Page<ParcelleResumeProjection> findResumes(Specification<Parcelle> specification, Pageable pageable);
+
+    List<ParcelleResumeProjection> findResumes(Specification<Parcelle> specification, Sort sort);
+
+    /**
+     * Lecture en flux pour l'export (à consommer dans une transaction, puis fermer).
+     * La taille de lot est fixée par requête : Integer.MIN_VALUE active la lecture
+     * ligne à ligne du driver MySQL sans useCursorFetch sur toute la connexion.
+     */
+    Stream<ParcelleResumeProjection> streamResumes(Agriculteur agriculteur, int fetchSize);
+}
@@ -0,0 +1,93 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.dto.parcelle.ParcelleResumeProjection;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.Parcelle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ParcelleRepositoryCustomImpl implements ParcelleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ParcelleResumeProjection> findResumes(Specification<Parcelle> specification, Pageable pageable) {
+        List<ParcelleResumeProjection> contenu = requeteResumes(specification, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(contenu, pageable, () -> compter(specification));
+    }
+
+    @Override
+    public List<ParcelleResumeProjection> findResumes(Specification<Parcelle> specification, Sort sort) {
+        return requeteResumes(specification, sort).getResultList();
+    }
+
+    @Override
+    public Stream<ParcelleResumeProjection> streamResumes(Agriculteur agriculteur, int fetchSize) {
+        return entityManager.createQuery("SELECT " + ParcelleRepository.RESUME +
+                        " FROM Parcelle p WHERE p.agriculteur = :agriculteur" +
+                        " ORDER BY p.dateCreation DESC, p.id DESC", ParcelleResumeProjection.class)
+                .setParameter("agriculteur", agriculteur)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<ParcelleResumeProjection> requeteResumes(Specification<Parcelle> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ParcelleResumeProjection> query = cb.createQuery(ParcelleResumeProjection.class);
+        Root<Parcelle> root = query.from(Parcelle.class);
+
+        query.select(cb.construct(ParcelleResumeProjection.class,
+                root.get("id"),
+                root.get("nomParcelle"),
+                root.get("surfaceHectares"),
+                root.get("typeCulture"),
+                root.get("commune"),
+                root.get("statutCulture"),
+                root.get("datePlantation"),
+                root.get("dateRecoltePrevue"),
+                root.get("irrigation"),
+                root.get("dateCreation")));
+
+        Predicate predicat = specification.toPredicate(root, query, cb);
+        if (predicat != null) {
+            query.where(predicat);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query);
+    }
+
+    private long compter(Specification<Parcelle> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Parcelle> root = query.from(Parcelle.class);
+        query.select(cb.count(root));
+
+        Predicate predicat = specification.toPredicate(root, query, cb);
+        if (predicat != null) {
+            query.where(predicat);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
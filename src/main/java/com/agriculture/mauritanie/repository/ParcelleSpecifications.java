@@ -0,0 +1,67 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.dto.parcelle.ParcelleFiltreRequest;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.Parcelle;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traduction des critères de filtrage en une seule clause WHERE.
+ * Le prédicat agriculteur_id vient toujours en premier pour exploiter les index composites de parcelles.
+ */
+public final class ParcelleSpecifications {
+
+    private ParcelleSpecifications() {
+    }
+
+    public static Specification<Parcelle> filtrer(Agriculteur agriculteur, ParcelleFiltreRequest filtre) {
+        return (root, query, cb) -> {
+            List<Predicate> predicats = new ArrayList<>();
+            predicats.add(cb.equal(root.get("agriculteur"), agriculteur));
+
+            if (hasText(filtre.getTypeCulture())) {
+                predicats.add(cb.equal(root.get("typeCulture"), filtre.getTypeCulture()));
+            }
+            if (filtre.getStatut() != null) {
+                predicats.add(cb.equal(root.get("statutCulture"), filtre.getStatut()));
+            }
+            if (hasText(filtre.getRegion())) {
+                predicats.add(cb.equal(root.get("region"), filtre.getRegion()));
+            }
+            if (hasText(filtre.getCommune())) {
+                predicats.add(cb.equal(root.get("commune"), filtre.getCommune()));
+            }
+            if (filtre.getIrrigation() != null) {
+                predicats.add(cb.equal(root.get("irrigation"), filtre.getIrrigation()));
+            }
+            if (filtre.getSurfaceMin() != null) {
+                predicats.add(cb.greaterThanOrEqualTo(root.get("surfaceHectares"), filtre.getSurfaceMin()));
+            }
+            if (filtre.getSurfaceMax() != null) {
+                predicats.add(cb.lessThanOrEqualTo(root.get("surfaceHectares"), filtre.getSurfaceMax()));
+            }
+            if (filtre.getDatePlantationDebut() != null) {
+                predicats.add(cb.greaterThanOrEqualTo(root.get("datePlantation"), filtre.getDatePlantationDebut()));
+            }
+            if (filtre.getDatePlantationFin() != null) {
+                predicats.add(cb.lessThanOrEqualTo(root.get("datePlantation"), filtre.getDatePlantationFin()));
+            }
+            if (filtre.getDateRecolteDebut() != null) {
+                predicats.add(cb.greaterThanOrEqualTo(root.get("dateRecoltePrevue"), filtre.getDateRecolteDebut()));
+            }
+            if (filtre.getDateRecolteFin() != null) {
+                predicats.add(cb.lessThanOrEqualTo(root.get("dateRecoltePrevue"), filtre.getDateRecolteFin()));
+            }
+
+            return cb.and(predicats.toArray(new Predicate[0]));
+        };
+    }
+
+    private static boolean hasText(String valeur) {
+        return valeur != null && !valeur.isEmpty();
+    }
+}
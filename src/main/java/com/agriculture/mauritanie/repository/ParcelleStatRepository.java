@@ -0,0 +1,57 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.entity.ParcelleStat;
+import com.agriculture.mauritanie.entity.ParcelleStatId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ParcelleStatRepository extends JpaRepository<ParcelleStat, ParcelleStatId> {
+
+    // Lecture par préfixe de clé primaire (agriculteur_id)
+    List<ParcelleStat> findByIdAgriculteurId(Long agriculteurId);
+
+    // Application atomique d'un delta, ligne créée si absente
+    @Modifying
+    @Query(value = "INSERT INTO parcelle_stats (agriculteur_id, dimension, cle, nombre, surface) " +
+            "VALUES (:agriculteurId, :dimension, :cle, :nombre, :surface) " +
+            "ON DUPLICATE KEY UPDATE nombre = nombre + :nombre, surface = surface + :surface",
+            nativeQuery = true)
+    void appliquerDelta(@Param("agriculteurId") Long agriculteurId,
+                        @Param("dimension") String dimension,
+                        @Param("cle") String cle,
+                        @Param("nombre") long nombre,
+                        @Param("surface") BigDecimal surface);
+
+    // Même upsert pour la ligne TOTAL, mais une ligne absente est créée avec la valeur marqueur :
+    // verrouille la ligne jusqu'à la fin de la transaction, y compris quand le delta est nul
+    @Modifying
+    @Query(value = "INSERT INTO parcelle_stats (agriculteur_id, dimension, cle, nombre, surface) " +
+            "VALUES (:agriculteurId, :dimension, :cle, :marqueur, 0) " +
+            "ON DUPLICATE KEY UPDATE nombre = nombre + :nombre, surface = surface + :surface",
+            nativeQuery = true)
+    void verrouillerTotal(@Param("agriculteurId") Long agriculteurId,
+                          @Param("dimension") String dimension,
+                          @Param("cle") String cle,
+                          @Param("marqueur") long marqueur,
+                          @Param("nombre") long nombre,
+                          @Param("surface") BigDecimal surface);
+
+    // Lecture courante (FOR UPDATE) : dernière version validée, indépendamment de l'instantané de la transaction
+    @Query(value = "SELECT nombre FROM parcelle_stats " +
+            "WHERE agriculteur_id = :agriculteurId AND dimension = :dimension AND cle = :cle FOR UPDATE",
+            nativeQuery = true)
+    Long lireNombreVerrouille(@Param("agriculteurId") Long agriculteurId,
+                              @Param("dimension") String dimension,
+                              @Param("cle") String cle);
+
+    @Modifying
+    @Query("DELETE FROM ParcelleStat s WHERE s.id.agriculteurId = :agriculteurId")
+    void deleteByAgriculteurId(@Param("agriculteurId") Long agriculteurId);
+}
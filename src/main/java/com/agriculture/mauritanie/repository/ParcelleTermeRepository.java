@@ -0,0 +1,29 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.entity.ParcelleTerme;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ParcelleTermeRepository extends JpaRepository<ParcelleTerme, Long> {
+
+    // Score par parcelle pour un préfixe de terme (LIKE 'prefixe%' exploite l'index (agriculteur_id, terme))
+    @Query("SELECT t.parcelleId, SUM(t.poids) FROM ParcelleTerme t " +
+            "WHERE t.agriculteurId = :agriculteurId AND t.terme LIKE CONCAT(:prefixe, '%') " +
+            "GROUP BY t.parcelleId")
+    List<Object[]> scorerParPrefixe(@Param("agriculteurId") Long agriculteurId,
+                                    @Param("prefixe") String prefixe);
+
+    @Modifying
+    @Query("DELETE FROM ParcelleTerme t WHERE t.parcelleId = :parcelleId")
+    void deleteByParcelleId(@Param("parcelleId") Long parcelleId);
+
+    @Modifying
+    @Query("DELETE FROM ParcelleTerme t WHERE t.agriculteurId = :agriculteurId")
+    void deleteByAgriculteurId(@Param("agriculteurId") Long agriculteurId);
+}
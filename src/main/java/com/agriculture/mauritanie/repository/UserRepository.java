@@ -1,8 +1,10 @@
 package com.agriculture.mauritanie.repository;
 
+import com.agriculture.mauritanie.dto.appariement.ProfilAcheteurProjection;
 import com.agriculture.mauritanie.entity.User;
 import com.agriculture.mauritanie.entity.StatutEnum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -29,6 +31,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByTelephoneAndStatut(String telephone, StatutEnum statut);
 
+    /**
+     * Lit uniquement le statut d'un utilisateur (vérification de suspension)
+     */
+    @Query("SELECT u.statut FROM User u WHERE u.id = :userId")
+    Optional<StatutEnum> findStatutById(@Param("userId") Long userId);
+
+    /**
+     * Lit les champs d'appariement des acheteurs (construction de l'index en mémoire)
+     */
+    @Query("SELECT new com.agriculture.mauritanie.dto.appariement.ProfilAcheteurProjection(" +
+            "a.id, a.produitsRecherches, a.zoneAchat, a.prixMaximum, a.certificationRequise, a.volumeMensuel) " +
+            "FROM Acheteur a WHERE a.statut = :statut")
+    List<ProfilAcheteurProjection> findProfilsAcheteurs(@Param("statut") StatutEnum statut);
+
     /**
      * Trouve tous les utilisateurs par région
      */
@@ -47,6 +63,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /**
      * Met à jour la date de dernière connexion
      */
+    @Modifying
     @Query("UPDATE User u SET u.dateDerniereConnexion = :date WHERE u.id = :userId")
     void updateDerniereConnexion(@Param("userId") Long userId, @Param("date") LocalDateTime date);
 
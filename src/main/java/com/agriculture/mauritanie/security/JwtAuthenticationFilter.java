@@ -1,12 +1,14 @@
 package com.agriculture.mauritanie.security;
 
+import com.agriculture.mauritanie.entity.LangueEnum;
 import com.agriculture.mauritanie.service.CustomUserDetailsService;
+import com.agriculture.mauritanie.service.CustomUserDetailsService.CustomUserPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,12 +20,26 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final StatutUtilisateurCache statutUtilisateurCache;
+    private final TokenVerifieCache tokenVerifieCache;
+    private final boolean statelessAuth;
+
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                   CustomUserDetailsService userDetailsService,
+                                   StatutUtilisateurCache statutUtilisateurCache,
+                                   TokenVerifieCache tokenVerifieCache,
+                                   @Value("${app.security.stateless-auth:true}") boolean statelessAuth) {
+        this.tokenProvider = tokenProvider;
+        this.userDetailsService = userDetailsService;
+        this.statutUtilisateurCache = statutUtilisateurCache;
+        this.tokenVerifieCache = tokenVerifieCache;
+        this.statelessAuth = statelessAuth;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -32,20 +48,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String jwt = getJwtFromRequest(request);
 
-        if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-            String username = tokenProvider.getUsernameFromToken(jwt);
+        JwtClaims claims = StringUtils.hasText(jwt) ? tokenVerifieCache.verifier(jwt, tokenProvider::parse).orElse(null) : null;
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        if (claims != null) {
+            UserDetails userDetails = statelessAuth
+                    ? chargerDepuisClaims(claims)
+                    : userDetailsService.loadUserByUsername(claims.getSubject());
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (userDetails != null) {
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Construit le principal à partir des claims signés, sans charger l'utilisateur.
+     * Seul le statut est vérifié (cache court) pour rejeter les comptes suspendus.
+     */
+    private UserDetails chargerDepuisClaims(JwtClaims claims) {
+        if (claims.getType() == null || claims.isRefresh()) {
+            log.debug("Token sans type d'accès rejeté pour: {}", claims.getSubject());
+            return null;
+        }
+        if (!statutUtilisateurCache.estActif(claims.getUserId())) {
+            log.debug("Utilisateur inactif ou suspendu: {}", claims.getUserId());
+            return null;
+        }
+
+        return CustomUserPrincipal.fromClaims(claims.getUserId(), claims.getSubject(), claims.getType(),
+                claims.getLangue() != null ? LangueEnum.valueOf(claims.getLangue()) : null);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,34 @@
+package com.agriculture.mauritanie.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Claims d'un token JWT dont la signature et l'expiration ont déjà été vérifiées
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class JwtClaims {
+
+    public static final String TYPE_REFRESH = "REFRESH";
+
+    private final String subject;
+    private final Long userId;
+    private final String type;
+    private final String langue;
+    private final Instant expiration;
+
+    public boolean isRefresh() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    public LocalDateTime getExpirationDate() {
+        return LocalDateTime.ofInstant(expiration, ZoneId.systemDefault());
+    }
+}
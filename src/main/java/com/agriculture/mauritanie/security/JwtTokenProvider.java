@@ -4,6 +4,7 @@ package com.agriculture.mauritanie.security;
 import com.agriculture.mauritanie.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -12,6 +13,7 @@ import javax.crypto.SecretKey;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 @Slf4j
@@ -26,8 +28,20 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-expiration:604800}") // 7 jours en secondes
     private long refreshExpiration;
 
+    // Clé et parseur construits une seule fois ; JwtParser est immuable et thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     /**
@@ -66,43 +80,54 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Vérifie la signature et l'expiration du token en une seule passe.
+     * Retourne les claims utiles, ou vide si le token est invalide.
+     */
+    public Optional<JwtClaims> parse(String token) {
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            return Optional.of(JwtClaims.builder()
+                    .subject(claims.getSubject())
+                    .userId(claims.get("userId", Long.class))
+                    .type(claims.get("type", String.class))
+                    .langue(claims.get("langue", String.class))
+                    .expiration(claims.getExpiration().toInstant())
+                    .build());
+        } catch (MalformedJwtException e) {
+            log.error("Token JWT malformé: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            log.error("Token JWT expiré: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            log.error("Token JWT non supporté: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("Token JWT vide: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Erreur de validation du token: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
     /**
      * Extrait le nom d'utilisateur (téléphone) du token
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
 
     /**
      * Extrait l'ID utilisateur du token
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("userId", Long.class);
+        return jwtParser.parseClaimsJws(token).getBody().get("userId", Long.class);
     }
 
     /**
      * Obtient la date d'expiration du token
      */
     public LocalDateTime getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getExpiration().toInstant()
+        return jwtParser.parseClaimsJws(token).getBody()
+                .getExpiration().toInstant()
                 .atZone(ZoneId.systemDefault())
                 .toLocalDateTime();
     }
@@ -111,24 +136,7 @@ public class JwtTokenProvider {
      * Valide le token JWT
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (MalformedJwtException e) {
-            log.error("Token JWT malformé: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.error("Token JWT expiré: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("Token JWT non supporté: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("Token JWT vide: {}", e.getMessage());
-        } catch (Exception e) {
-            log.error("Erreur de validation du token: {}", e.getMessage());
-        }
-        return false;
+        return parse(token).isPresent();
     }
 
     /**
@@ -136,11 +144,7 @@ public class JwtTokenProvider {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
             return claims.getExpiration().before(new Date());
         } catch (Exception e) {
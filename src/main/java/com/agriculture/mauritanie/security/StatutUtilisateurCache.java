@@ -0,0 +1,44 @@
+package com.agriculture.mauritanie.security;
+
+import com.agriculture.mauritanie.entity.StatutEnum;
+import com.agriculture.mauritanie.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache court du statut des utilisateurs authentifiés par token.
+ * Permet de rejeter rapidement un compte SUSPENDU sans relire la ligne users à chaque requête.
+ * L'application ne modifie jamais le statut d'un compte existant (suspension ou suppression
+ * faites en base) : le TTL borne le délai avant qu'un changement soit pris en compte.
+ */
+@Component
+public class StatutUtilisateurCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, StatutEnum> statuts;
+
+    public StatutUtilisateurCache(UserRepository userRepository,
+                                  @Value("${app.security.statut-cache.ttl:30}") long ttlSecondes,
+                                  @Value("${app.security.statut-cache.maximum-size:100000}") long tailleMax) {
+        this.userRepository = userRepository;
+        this.statuts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSecondes))
+                .maximumSize(tailleMax)
+                .build();
+    }
+
+    /**
+     * Vérifie que l'utilisateur existe toujours et qu'il est ACTIF
+     */
+    public boolean estActif(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        StatutEnum statut = statuts.get(userId, id -> userRepository.findStatutById(id).orElse(null));
+        return statut == StatutEnum.ACTIF;
+    }
+}
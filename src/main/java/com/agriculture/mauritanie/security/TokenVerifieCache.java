@@ -0,0 +1,96 @@
+package com.agriculture.mauritanie.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache des tokens JWT déjà vérifiés, indexé par l'empreinte SHA-256 du token compact.
+ * Chaque entrée expire à l'instant exp du token : un token expiré n'est jamais servi par le cache.
+ * Seuls les tokens valides sont mis en cache.
+ */
+@Component
+@Slf4j
+public class TokenVerifieCache {
+
+    private final boolean enabled;
+    private final Cache<String, JwtClaims> tokens;
+
+    public TokenVerifieCache(MeterRegistry meterRegistry,
+                             @Value("${app.jwt.cache.enabled:true}") boolean enabled,
+                             @Value("${app.jwt.cache.maximum-size:100000}") long tailleMax) {
+        this.enabled = enabled;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfter(new ExpirationDuToken())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwtVerifies");
+    }
+
+    /**
+     * Retourne les claims en cache, ou délègue la vérification complète au vérificateur
+     */
+    public Optional<JwtClaims> verifier(String token, Function<String, Optional<JwtClaims>> verificateur) {
+        if (!enabled) {
+            return verificateur.apply(token);
+        }
+
+        String empreinte = empreinte(token);
+        JwtClaims claims = tokens.getIfPresent(empreinte);
+        if (claims != null && claims.getExpiration().isAfter(Instant.now())) {
+            return Optional.of(claims);
+        }
+
+        Optional<JwtClaims> verifie = verificateur.apply(token);
+        verifie.ifPresent(c -> tokens.put(empreinte, c));
+        return verifie;
+    }
+
+    public void vider() {
+        log.info("Vidage du cache des tokens vérifiés");
+        tokens.invalidateAll();
+    }
+
+    private static String empreinte(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static class ExpirationDuToken implements Expiry<String, JwtClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+            long restant = Duration.between(Instant.now(), claims.getExpiration()).toNanos();
+            return Math.max(restant, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.appariement.ProfilAcheteurProjection;
+import com.agriculture.mauritanie.entity.Acheteur;
+import com.agriculture.mauritanie.entity.CertificationEnum;
+import com.agriculture.mauritanie.entity.OffreMarche;
+import com.agriculture.mauritanie.entity.StatutEnum;
+import com.agriculture.mauritanie.repository.UserRepository;
+import com.agriculture.mauritanie.util.NormalisationTexte;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Appariement des offres avec les profils acheteurs.
+ * Les champs texte des profils (produits recherchés, zone d'achat) sont analysés une seule fois
+ * dans un index inversé en mémoire (produit → acheteurs, région → acheteurs) : une offre n'est
+ * comparée qu'aux acheteurs candidats, sans parcourir la table users.
+ */
+@Service
+@Slf4j
+public class AppariementService {
+
+    // Zones d'achat signifiant « tout le pays »
+    private static final Set<String> ZONES_NATIONALES = Set.of(
+            "toutes", "tout", "national", "nationale", "mauritanie", "partout");
+    private static final Pattern ESPACES = Pattern.compile("\\s+");
+
+    private final UserRepository userRepository;
+    private final Timer dureeAppariement;
+
+    private volatile Index index = new Index();
+
+    // Profils modifiés pendant une reconstruction, rejoués après la bascule ; accès synchronisés sur this
+    private Map<Long, Optional<Profil>> modifiesPendantReconstruction;
+
+    public AppariementService(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        Gauge.builder("appariement.acheteurs", this, service -> service.index.profils.size())
+                .description("Profils acheteurs présents dans l'index d'appariement")
+                .register(meterRegistry);
+        this.dureeAppariement = Timer.builder("appariement.offre")
+                .description("Durée de l'appariement d'une offre avec les acheteurs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Acheteurs correspondant à une offre : zone ciblée explicitement d'abord, puis les plus gros volumes
+     */
+    public List<Correspondance> apparier(OffreMarche offre) {
+        return dureeAppariement.record(() -> apparier(index, offre));
+    }
+
+    /**
+     * (Ré)indexer un acheteur après inscription ou modification de son profil
+     */
+    public synchronized void indexer(Acheteur acheteur) {
+        Optional<Profil> profil = acheteur.getStatut() == StatutEnum.ACTIF
+                ? Optional.of(Profil.de(acheteur.getId(), acheteur.getProduitsRecherches(), acheteur.getZoneAchat(),
+                        acheteur.getPrixMaximum(), acheteur.getCertificationRequise(), acheteur.getVolumeMensuel()))
+                : Optional.empty();
+        appliquer(index, acheteur.getId(), profil);
+        if (modifiesPendantReconstruction != null) {
+            modifiesPendantReconstruction.put(acheteur.getId(), profil);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        reconstruire();
+    }
+
+    /**
+     * Reconstruit l'index depuis la table ; rattrape les changements de statut faits hors de l'application
+     */
+    @Scheduled(fixedDelayString = "${app.appariement.reconstruction-interval:3600000}",
+            initialDelayString = "${app.appariement.reconstruction-interval:3600000}")
+    public void reconstruire() {
+        synchronized (this) {
+            modifiesPendantReconstruction = new LinkedHashMap<>();
+        }
+
+        Index nouvelIndex = new Index();
+        try {
+            for (ProfilAcheteurProjection ligne : userRepository.findProfilsAcheteurs(StatutEnum.ACTIF)) {
+                nouvelIndex.ajouter(Profil.de(ligne.getId(), ligne.getProduitsRecherches(), ligne.getZoneAchat(),
+                        ligne.getPrixMaximum(), ligne.getCertificationRequise(), ligne.getVolumeMensuel()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Échec de la reconstruction de l'index d'appariement: {}", e.getMessage());
+            synchronized (this) {
+                modifiesPendantReconstruction = null;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            modifiesPendantReconstruction.forEach((id, profil) -> appliquer(nouvelIndex, id, profil));
+            modifiesPendantReconstruction = null;
+            index = nouvelIndex;
+        }
+        log.info("Index d'appariement reconstruit: {} acheteurs, {} produits",
+                nouvelIndex.profils.size(), nouvelIndex.parProduit.size());
+    }
+
+    private static List<Correspondance> apparier(Index index, OffreMarche offre) {
+        String produit = cle(offre.getProduit());
+        Set<Long> parProduit = index.parProduit.getOrDefault(produit, Collections.emptySet());
+        if (parProduit.isEmpty()) {
+            return List.of();
+        }
+
+        String region = cle(offre.getRegion());
+        Set<Long> parRegion = index.parRegion.getOrDefault(region, Collections.emptySet());
+
+        // On parcourt le plus petit des deux côtés de l'intersection produit ∩ (région ∪ national)
+        List<Long> candidats = new ArrayList<>();
+        if (parRegion.size() + index.national.size() < parProduit.size()) {
+            for (Long id : parRegion) {
+                if (parProduit.contains(id)) candidats.add(id);
+            }
+            for (Long id : index.national) {
+                if (parProduit.contains(id)) candidats.add(id);
+            }
+        } else {
+            for (Long id : parProduit) {
+                if (parRegion.contains(id) || index.national.contains(id)) candidats.add(id);
+            }
+        }
+
+        Double prixKg = prixAuKg(offre);
+        boolean certifiee = offre.getCertification() != null
+                && offre.getCertification() != CertificationEnum.TRADITIONNEL;
+
+        List<Correspondance> correspondances = new ArrayList<>();
+        for (Long id : candidats) {
+            Profil profil = index.profils.get(id);
+            if (profil == null) continue;
+            if (profil.certificationRequise && !certifiee) continue;
+            // Prix maximum exprimé au kg : comparé seulement pour les unités convertibles
+            if (profil.prixMaximum != null && prixKg != null && prixKg > profil.prixMaximum) continue;
+            correspondances.add(new Correspondance(id, !profil.zones.isEmpty(), profil.volumeMensuel));
+        }
+
+        correspondances.sort(Comparator.comparing(Correspondance::isZoneCiblee).reversed()
+                .thenComparing(Correspondance::getVolumeMensuel, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(Correspondance::getAcheteurId));
+        return correspondances;
+    }
+
+    private static Double prixAuKg(OffreMarche offre) {
+        if (offre.getPrixUnitaire() == null || offre.getUnite() == null || !offre.getUnite().isConvertibleEnKg()) {
+            return null;
+        }
+        return offre.getPrixUnitaire().doubleValue() / offre.getUnite().getKilogrammes();
+    }
+
+    private static void appliquer(Index index, Long acheteurId, Optional<Profil> profil) {
+        index.retirer(acheteurId);
+        profil.ifPresent(index::ajouter);
+    }
+
+    /**
+     * Éléments d'une liste séparée par des virgules (ou points-virgules), normalisés
+     */
+    private static Set<String> elements(String liste) {
+        Set<String> elements = new LinkedHashSet<>();
+        if (liste == null) {
+            return elements;
+        }
+        for (String element : liste.split("[,;/]")) {
+            String normalise = cle(element);
+            if (!normalise.isEmpty()) {
+                elements.add(normalise);
+            }
+        }
+        return elements;
+    }
+
+    private static String cle(String texte) {
+        return ESPACES.matcher(NormalisationTexte.normaliser(texte).trim()).replaceAll(" ");
+    }
+
+    /**
+     * Acheteur retenu pour une offre
+     */
+    public static final class Correspondance {
+        private final Long acheteurId;
+        private final boolean zoneCiblee;
+        private final Double volumeMensuel;
+
+        Correspondance(Long acheteurId, boolean zoneCiblee, Double volumeMensuel) {
+            this.acheteurId = acheteurId;
+            this.zoneCiblee = zoneCiblee;
+            this.volumeMensuel = volumeMensuel;
+        }
+
+        public Long getAcheteurId() {
+            return acheteurId;
+        }
+
+        public boolean isZoneCiblee() {
+            return zoneCiblee;
+        }
+
+        public Double getVolumeMensuel() {
+            return volumeMensuel;
+        }
+    }
+
+    /**
+     * Profil acheteur analysé ; zones vides = achète dans tout le pays
+     */
+    private static final class Profil {
+        private final Long id;
+        private final Set<String> produits;
+        private final Set<String> zones;
+        private final Double prixMaximum;
+        private final boolean certificationRequise;
+        private final Double volumeMensuel;
+
+        private Profil(Long id, Set<String> produits, Set<String> zones, Double prixMaximum,
+                       boolean certificationRequise, Double volumeMensuel) {
+            this.id = id;
+            this.produits = produits;
+            this.zones = zones;
+            this.prixMaximum = prixMaximum;
+            this.certificationRequise = certificationRequise;
+            this.volumeMensuel = volumeMensuel;
+        }
+
+        static Profil de(Long id, String produitsRecherches, String zoneAchat, Double prixMaximum,
+                         Boolean certificationRequise, Double volumeMensuel) {
+            Set<String> zones = elements(zoneAchat);
+            if (zones.stream().anyMatch(ZONES_NATIONALES::contains)) {
+                zones = Set.of();
+            }
+            return new Profil(id, elements(produitsRecherches), zones, prixMaximum,
+                    Boolean.TRUE.equals(certificationRequise), volumeMensuel);
+        }
+    }
+
+    private static final class Index {
+        private final Map<Long, Profil> profils = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> parProduit = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> parRegion = new ConcurrentHashMap<>();
+        private final Set<Long> national = ConcurrentHashMap.newKeySet();
+
+        void ajouter(Profil profil) {
+            if (profil.produits.isEmpty()) {
+                return;
+            }
+            profils.put(profil.id, profil);
+            for (String produit : profil.produits) {
+                parProduit.computeIfAbsent(produit, cle -> ConcurrentHashMap.newKeySet()).add(profil.id);
+            }
+            if (profil.zones.isEmpty()) {
+                national.add(profil.id);
+            }
+            for (String zone : profil.zones) {
+                parRegion.computeIfAbsent(zone, cle -> ConcurrentHashMap.newKeySet()).add(profil.id);
+            }
+        }
+
+        void retirer(Long acheteurId) {
+            Profil profil = profils.remove(acheteurId);
+            if (profil == null) {
+                return;
+            }
+            profil.produits.forEach(produit -> retirer(parProduit, produit, acheteurId));
+            profil.zones.forEach(zone -> retirer(parRegion, zone, acheteurId));
+            national.remove(acheteurId);
+        }
+
+        private static void retirer(Map<String, Set<Long>> index, String cle, Long acheteurId) {
+            index.computeIfPresent(cle, (k, ids) -> {
+                ids.remove(acheteurId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
@@ -8,10 +8,11 @@ import com.agriculture.mauritanie.security.JwtTokenProvider;
 import com.agriculture.mauritanie.exception.AuthenticationException;
 import com.agriculture.mauritanie.exception.ResourceNotFoundException;
 import com.agriculture.mauritanie.exception.DuplicateResourceException;
+import com.agriculture.mauritanie.util.ApresCommit;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,27 +24,30 @@ import java.time.LocalDateTime;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final HachageMotDePasseService hachageMotDePasseService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final DerniereConnexionBuffer derniereConnexionBuffer;
+    private final AppariementService appariementService;
 
     /**
-     * Authentification d'un utilisateur
+     * Authentification d'un utilisateur.
+     * Pas de transaction englobante : aucune connexion n'est retenue pendant la vérification BCrypt.
+     * Les inscriptions suivent le même principe : vérification du téléphone, hachage, puis
+     * insertion, chacune des deux requêtes dans sa propre transaction courte.
      */
-    @Transactional
     public AuthResponse login(LoginRequest request) {
         log.info("Tentative de connexion pour le téléphone: {}", request.getTelephone());
 
         User user = userRepository.findByTelephoneAndStatut(request.getTelephone(), StatutEnum.ACTIF)
                 .orElseThrow(() -> new AuthenticationException("Identifiants invalides"));
 
-        if (!passwordEncoder.matches(request.getMotDePasse(), user.getMotDePasseHash())) {
+        if (!hachageMotDePasseService.verifier(request.getMotDePasse(), user.getMotDePasseHash())) {
             log.warn("Tentative de connexion échouée pour: {}", request.getTelephone());
             throw new AuthenticationException("Identifiants invalides");
         }
 
-        // Mise à jour de la dernière connexion
-        user.setDateDerniereConnexion(LocalDateTime.now());
-        userRepository.save(user);
+        // Mise à jour de la dernière connexion (écrite en différé par lots)
+        derniereConnexionBuffer.enregistrer(user.getId(), LocalDateTime.now());
 
         return generateAuthResponse(user, "Connexion réussie");
     }
@@ -51,15 +55,15 @@ public class AuthService {
     /**
      * Inscription d'un agriculteur (avec tous les champs)
      */
-    @Transactional
     public AuthResponse registerAgriculteur(RegisterAgriculteurRequest request) {
         log.info("Inscription d'un agriculteur: {}", request.getTelephone());
 
         validateUniquePhone(request.getTelephone());
+        String motDePasseHash = hachageMotDePasseService.hacher(request.getMotDePasse());
 
         Agriculteur agriculteur = new Agriculteur();
         mapCommonFields(agriculteur, request.getNom(), request.getTelephone(),
-                request.getMotDePasse(), request.getCommune(), request.getRegion(),
+                motDePasseHash, request.getCommune(), request.getRegion(),
                 request.getLanguePreferee());
 
         agriculteur.setTypeCulture(request.getTypeCulture());
@@ -76,7 +80,7 @@ public class AuthService {
         agriculteur.setAccesCredit(request.getAccesCredit());
         agriculteur.setProblemesPrincipaux(request.getProblemesPrincipaux());
 
-        User savedUser = userRepository.save(agriculteur);
+        User savedUser = enregistrer(agriculteur);
 
         return generateAuthResponse(savedUser, "Inscription agriculteur réussie");
     }
@@ -84,15 +88,15 @@ public class AuthService {
     /**
      * Inscription d'un acheteur (avec tous les champs)
      */
-    @Transactional
     public AuthResponse registerAcheteur(RegisterAcheteurRequest request) {
         log.info("Inscription d'un acheteur: {}", request.getTelephone());
 
         validateUniquePhone(request.getTelephone());
+        String motDePasseHash = hachageMotDePasseService.hacher(request.getMotDePasse());
 
         Acheteur acheteur = new Acheteur();
         mapCommonFields(acheteur, request.getNom(), request.getTelephone(),
-                request.getMotDePasse(), request.getCommune(), request.getRegion(),
+                motDePasseHash, request.getCommune(), request.getRegion(),
                 request.getLanguePreferee());
 
         // Mapping complet des champs acheteur
@@ -112,7 +116,9 @@ public class AuthService {
         acheteur.setNumeroLicense(request.getNumeroLicense());
         acheteur.setSecteurActivite(request.getSecteurActivite());
 
-        User savedUser = userRepository.save(acheteur);
+        Acheteur savedUser = enregistrer(acheteur);
+        // Sans transaction englobante l'acheteur est déjà validé et l'index mis à jour tout de suite
+        ApresCommit.executer(() -> appariementService.indexer(savedUser));
 
         return generateAuthResponse(savedUser, "Inscription acheteur réussie");
     }
@@ -120,15 +126,15 @@ public class AuthService {
     /**
      * Inscription d'un fournisseur (avec tous les champs)
      */
-    @Transactional
     public AuthResponse registerFournisseur(RegisterFournisseurRequest request) {
         log.info("Inscription d'un fournisseur: {}", request.getTelephone());
 
         validateUniquePhone(request.getTelephone());
+        String motDePasseHash = hachageMotDePasseService.hacher(request.getMotDePasse());
 
         Fournisseur fournisseur = new Fournisseur();
         mapCommonFields(fournisseur, request.getNom(), request.getTelephone(),
-                request.getMotDePasse(), request.getCommune(), request.getRegion(),
+                motDePasseHash, request.getCommune(), request.getRegion(),
                 request.getLanguePreferee());
 
         // Mapping complet des champs fournisseur
@@ -152,7 +158,7 @@ public class AuthService {
         fournisseur.setAdressePhysique(request.getAdressePhysique());
         fournisseur.setHorairesOuverture(request.getHorairesOuverture());
 
-        User savedUser = userRepository.save(fournisseur);
+        User savedUser = enregistrer(fournisseur);
 
         return generateAuthResponse(savedUser, "Inscription fournisseur réussie");
     }
@@ -160,6 +166,7 @@ public class AuthService {
     /**
      * Rafraîchir le token
      */
+    @Transactional(readOnly = true)
     public AuthResponse refreshToken(String refreshToken) {
         if (!jwtTokenProvider.validateToken(refreshToken)) {
             throw new AuthenticationException("Token de rafraîchissement invalide");
@@ -175,6 +182,7 @@ public class AuthService {
     /**
      * Obtenir le profil utilisateur avec données spécifiques
      */
+    @Transactional(readOnly = true)
     public UserProfileResponse getUserProfile(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
@@ -202,11 +210,20 @@ public class AuthService {
         }
     }
 
-    private void mapCommonFields(User user, String nom, String telephone, String motDePasse,
+    // Le numéro a pu être pris pendant le hachage : la contrainte unique tranche
+    private <T extends User> T enregistrer(T user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateResourceException("Ce numéro de téléphone est déjà utilisé");
+        }
+    }
+
+    private void mapCommonFields(User user, String nom, String telephone, String motDePasseHash,
                                  String commune, String region, LangueEnum languePreferee) {
         user.setNom(nom);
         user.setTelephone(telephone);
-        user.setMotDePasseHash(passwordEncoder.encode(motDePasse));
+        user.setMotDePasseHash(motDePasseHash);
         user.setCommune(commune);
         user.setRegion(region);
         user.setLanguePreferee(languePreferee != null ? languePreferee : LangueEnum.FR);
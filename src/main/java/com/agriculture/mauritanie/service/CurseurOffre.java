@@ -0,0 +1,47 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.offre.OffreFiltreRequest;
+import com.agriculture.mauritanie.dto.offre.OffreResumeDTO;
+import com.agriculture.mauritanie.repository.OffreMarcheRepositoryCustom.Position;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de consultation des offres : tri, valeur de la clé de tri et identifiant.
+ * Un curseur n'est valable que pour le tri qui l'a produit.
+ */
+final class CurseurOffre {
+
+    private static final String SEPARATEUR = "|";
+
+    private CurseurOffre() {
+    }
+
+    static String encoder(OffreFiltreRequest.Tri tri, OffreResumeDTO offre) {
+        String valeur = tri == OffreFiltreRequest.Tri.RECENT
+                ? offre.getDatePublication().toString()
+                : offre.getPrixUnitaire().toPlainString();
+        String brut = tri.name() + SEPARATEUR + valeur + SEPARATEUR + offre.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decoder(String curseur, OffreFiltreRequest.Tri tri) {
+        try {
+            String[] parties = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATEUR);
+            if (parties.length != 3 || !tri.name().equals(parties[0])) {
+                throw new IllegalArgumentException("Curseur incompatible avec le tri demandé");
+            }
+            Long id = Long.parseLong(parties[2]);
+            return tri == OffreFiltreRequest.Tri.RECENT
+                    ? new Position(null, LocalDateTime.parse(parties[1]), id)
+                    : new Position(new BigDecimal(parties[1]), null, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
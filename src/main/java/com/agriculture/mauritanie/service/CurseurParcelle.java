@@ -0,0 +1,50 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.parcelle.ParcelleResumeProjection;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position opaque dans la liste des parcelles triée par (dateCreation, id) décroissants.
+ * Encodée en Base64 URL pour que le client la renvoie telle quelle.
+ */
+final class CurseurParcelle {
+
+    private static final String SEPARATEUR = "|";
+
+    private final LocalDateTime dateCreation;
+    private final Long id;
+
+    private CurseurParcelle(LocalDateTime dateCreation, Long id) {
+        this.dateCreation = dateCreation;
+        this.id = id;
+    }
+
+    static String encoder(ParcelleResumeProjection parcelle) {
+        String brut = parcelle.getDateCreation() + SEPARATEUR + parcelle.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CurseurParcelle decoder(String curseur) {
+        try {
+            String brut = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+            int separateur = brut.lastIndexOf(SEPARATEUR);
+            return new CurseurParcelle(
+                    LocalDateTime.parse(brut.substring(0, separateur)),
+                    Long.parseLong(brut.substring(separateur + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+
+    Long getId() {
+        return id;
+    }
+}
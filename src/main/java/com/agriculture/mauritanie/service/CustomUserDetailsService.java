@@ -1,5 +1,6 @@
 package com.agriculture.mauritanie.service;
 
+import com.agriculture.mauritanie.entity.LangueEnum;
 import com.agriculture.mauritanie.entity.User;
 import com.agriculture.mauritanie.entity.StatutEnum;
 import com.agriculture.mauritanie.repository.UserRepository;
@@ -10,6 +11,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -22,6 +24,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String telephone) throws UsernameNotFoundException {
         User user = userRepository.findByTelephoneAndStatut(telephone, StatutEnum.ACTIF)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé: " + telephone));
@@ -32,9 +35,36 @@ public class CustomUserDetailsService implements UserDetailsService {
     // Classe interne pour représenter l'utilisateur authentifié
     public static class CustomUserPrincipal implements UserDetails {
         private final User user;
+        private final Long userId;
+        private final String telephone;
+        private final String type;
+        private final LangueEnum langue;
+        private final StatutEnum statut;
 
         public CustomUserPrincipal(User user) {
             this.user = user;
+            this.userId = user.getId();
+            this.telephone = user.getTelephone();
+            this.type = user.getClass().getSimpleName().toUpperCase();
+            this.langue = user.getLanguePreferee();
+            this.statut = user.getStatut();
+        }
+
+        private CustomUserPrincipal(Long userId, String telephone, String type, LangueEnum langue) {
+            this.user = null;
+            this.userId = userId;
+            this.telephone = telephone;
+            this.type = type;
+            this.langue = langue;
+            this.statut = StatutEnum.ACTIF;
+        }
+
+        /**
+         * Construit le principal à partir des claims signés du token, sans lecture en base.
+         * Le statut ACTIF doit avoir été vérifié par l'appelant.
+         */
+        public static CustomUserPrincipal fromClaims(Long userId, String telephone, String type, LangueEnum langue) {
+            return new CustomUserPrincipal(userId, telephone, type, langue);
         }
 
         @Override
@@ -42,7 +72,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             List<GrantedAuthority> authorities = new ArrayList<>();
 
             // Ajouter le rôle basé sur le type d'utilisateur
-            String role = "ROLE_" + user.getClass().getSimpleName().toUpperCase();
+            String role = "ROLE_" + type;
             authorities.add(new SimpleGrantedAuthority(role));
 
             return authorities;
@@ -50,12 +80,12 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         @Override
         public String getPassword() {
-            return user.getMotDePasseHash();
+            return user != null ? user.getMotDePasseHash() : null;
         }
 
         @Override
         public String getUsername() {
-            return user.getTelephone();
+            return telephone;
         }
 
         @Override
@@ -65,7 +95,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         @Override
         public boolean isAccountNonLocked() {
-            return user.getStatut() != StatutEnum.SUSPENDU;
+            return statut != StatutEnum.SUSPENDU;
         }
 
         @Override
@@ -75,15 +105,22 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         @Override
         public boolean isEnabled() {
-            return user.getStatut() == StatutEnum.ACTIF;
+            return statut == StatutEnum.ACTIF;
         }
 
+        /**
+         * Entité chargée en base ; null lorsque le principal provient uniquement du token
+         */
         public User getUser() {
             return user;
         }
 
         public Long getUserId() {
-            return user.getId();
+            return userId;
+        }
+
+        public LangueEnum getLangue() {
+            return langue;
         }
     }
 }
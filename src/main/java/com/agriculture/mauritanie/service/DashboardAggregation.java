@@ -0,0 +1,170 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.entity.ParcelleStat;
+import com.agriculture.mauritanie.entity.StatutCultureEnum;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accumulateur des compteurs du dashboard.
+ * Replie en une seule passe les lignes de parcelle_stats d'un agriculteur.
+ */
+public class DashboardAggregation {
+
+    static final String NON_SPECIFIE = "Non spécifié";
+
+    private static final Set<StatutCultureEnum> STATUTS_ACTIFS = EnumSet.of(
+            StatutCultureEnum.EN_CROISSANCE,
+            StatutCultureEnum.EN_FLORAISON,
+            StatutCultureEnum.MATURATION);
+
+    private long nombreTotal;
+    private BigDecimal surfaceTotale = BigDecimal.ZERO;
+    private long culturesActives;
+    private long culturesEnRecolte;
+    private long avecIrrigation;
+    private long sansIrrigation;
+
+    private final Map<String, Long> parTypeCulture = new LinkedHashMap<>();
+    private final Map<String, BigDecimal> surfaceParTypeCulture = new LinkedHashMap<>();
+    private final Map<String, Long> parStatut = new LinkedHashMap<>();
+    private final Map<String, Long> parRegion = new LinkedHashMap<>();
+    private final Map<String, BigDecimal> surfaceParRegion = new LinkedHashMap<>();
+    private final Map<String, Long> parCommune = new LinkedHashMap<>();
+
+    public static DashboardAggregation fromStats(List<ParcelleStat> stats) {
+        DashboardAggregation aggregation = new DashboardAggregation();
+        for (ParcelleStat stat : stats) {
+            aggregation.appliquer(stat);
+        }
+        return aggregation;
+    }
+
+    private void appliquer(ParcelleStat stat) {
+        long nombre = stat.getNombre();
+        BigDecimal surface = stat.getSurface() != null ? stat.getSurface() : BigDecimal.ZERO;
+        String cle = stat.getId().getCle();
+
+        switch (stat.getId().getDimension()) {
+            case TOTAL -> {
+                nombreTotal += nombre;
+                surfaceTotale = surfaceTotale.add(surface);
+            }
+            case STATUT -> {
+                if (nombre == 0) return;
+                StatutCultureEnum statut = toStatut(cle);
+                if (statut != null && STATUTS_ACTIFS.contains(statut)) {
+                    culturesActives += nombre;
+                } else if (statut == StatutCultureEnum.PRET_A_RECOLTER) {
+                    culturesEnRecolte += nombre;
+                }
+                parStatut.merge(statut != null ? statut.getLibelle() : NON_SPECIFIE, nombre, Long::sum);
+            }
+            case TYPE_CULTURE -> {
+                if (nombre == 0) return;
+                parTypeCulture.merge(cle, nombre, Long::sum);
+                surfaceParTypeCulture.merge(cle, surface, BigDecimal::add);
+            }
+            case REGION -> {
+                if (nombre == 0) return;
+                parRegion.merge(cle, nombre, Long::sum);
+                surfaceParRegion.merge(cle, surface, BigDecimal::add);
+            }
+            case COMMUNE -> {
+                if (nombre == 0) return;
+                parCommune.merge(cle, nombre, Long::sum);
+            }
+            case IRRIGATION -> {
+                if (Boolean.parseBoolean(cle)) {
+                    avecIrrigation += nombre;
+                } else {
+                    sansIrrigation += nombre;
+                }
+            }
+            default -> {
+                // MOIS_PLANTATION : exploité par les séries mensuelles de DashboardService
+            }
+        }
+    }
+
+    private static StatutCultureEnum toStatut(String cle) {
+        try {
+            return StatutCultureEnum.valueOf(cle);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public long getNombreTotal() {
+        return nombreTotal;
+    }
+
+    public BigDecimal getSurfaceTotale() {
+        return surfaceTotale;
+    }
+
+    public long getCulturesActives() {
+        return culturesActives;
+    }
+
+    public long getCulturesEnRecolte() {
+        return culturesEnRecolte;
+    }
+
+    public long getAvecIrrigation() {
+        return avecIrrigation;
+    }
+
+    public long getSansIrrigation() {
+        return sansIrrigation;
+    }
+
+    public Map<String, Long> getParTypeCulture() {
+        return parTypeCulture;
+    }
+
+    public Map<String, BigDecimal> getSurfaceParTypeCulture() {
+        return surfaceParTypeCulture;
+    }
+
+    public Map<String, Long> getParStatut() {
+        return parStatut;
+    }
+
+    public Map<String, Long> getParRegion() {
+        return parRegion;
+    }
+
+    public Map<String, BigDecimal> getSurfaceParRegion() {
+        return surfaceParRegion;
+    }
+
+    public Map<String, Long> getParCommune() {
+        return parCommune;
+    }
+
+    public BigDecimal getPourcentageIrrigation() {
+        if (nombreTotal == 0) return BigDecimal.ZERO;
+
+        return BigDecimal.valueOf(avecIrrigation)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(nombreTotal), 2, RoundingMode.HALF_UP);
+    }
+
+    public Map<String, BigDecimal> getSurfaceMoyenneParTypeCulture() {
+        Map<String, BigDecimal> moyennes = new LinkedHashMap<>();
+        parTypeCulture.forEach((culture, nombre) -> {
+            if (nombre > 0) {
+                BigDecimal surface = surfaceParTypeCulture.getOrDefault(culture, BigDecimal.ZERO);
+                moyennes.put(culture, surface.divide(BigDecimal.valueOf(nombre), 2, RoundingMode.HALF_UP));
+            }
+        });
+        return moyennes;
+    }
+}
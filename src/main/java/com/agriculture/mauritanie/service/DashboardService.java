@@ -1,11 +1,15 @@
 // DashboardService.java
 package com.agriculture.mauritanie.service;
 
+import com.agriculture.mauritanie.config.CacheConfig;
+import com.agriculture.mauritanie.config.LecturePrimaire;
 import com.agriculture.mauritanie.dto.dashboard.DashboardAgriculteurDTO;
 import com.agriculture.mauritanie.dto.dashboard.StatistiquesAgriculteurDTO;
 import com.agriculture.mauritanie.dto.parcelle.ParcelleResumeDTO;
+import com.agriculture.mauritanie.dto.parcelle.ParcelleResumeProjection;
 import com.agriculture.mauritanie.entity.Agriculteur;
-import com.agriculture.mauritanie.entity.Parcelle;
+import com.agriculture.mauritanie.entity.DimensionStatEnum;
+import com.agriculture.mauritanie.entity.ParcelleStat;
 import com.agriculture.mauritanie.entity.StatutCultureEnum;
 import com.agriculture.mauritanie.repository.ParcelleRepository;
 import com.agriculture.mauritanie.repository.UserRepository;
@@ -13,14 +17,15 @@ import com.agriculture.mauritanie.exception.ResourceNotFoundException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -32,130 +37,112 @@ public class DashboardService {
     private final ParcelleRepository parcelleRepository;
     private final UserRepository userRepository;
     private final ParcelleService parcelleService;
+    private final ParcelleStatsService parcelleStatsService;
 
     /**
      * Générer le dashboard complet pour un agriculteur
      */
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD, key = "#agriculteurId")
+    @Transactional(readOnly = true)
     public DashboardAgriculteurDTO getDashboard(Long agriculteurId) {
-        log.info("Génération du dashboard pour l'agriculteur: {}", agriculteurId);
-
-        Agriculteur agriculteur = getAgriculteur(agriculteurId);
-
-        // Statistiques de base
-        Long nombreTotalParcelles = parcelleRepository.countByAgriculteur(agriculteur);
-        BigDecimal surfaceTotale = parcelleRepository.sumSurfaceByAgriculteur(agriculteur);
-        if (surfaceTotale == null) surfaceTotale = BigDecimal.ZERO;
-
-        // Cultures actives (pas récoltées ou en repos)
-        Long culturesActives = parcelleRepository.countByAgriculteurAndStatut(
-                agriculteur, StatutCultureEnum.EN_CROISSANCE) +
-                parcelleRepository.countByAgriculteurAndStatut(
-                        agriculteur, StatutCultureEnum.EN_FLORAISON) +
-                parcelleRepository.countByAgriculteurAndStatut(
-                        agriculteur, StatutCultureEnum.MATURATION);
-
-        Long culturesEnRecolte = parcelleRepository.countByAgriculteurAndStatut(
-                agriculteur, StatutCultureEnum.PRET_A_RECOLTER);
-
-        // Répartitions
-        Map<String, Long> parcellesParTypeCulture = buildMapFromObjectArray(
-                parcelleRepository.countByAgriculteurGroupByTypeCulture(agriculteur));
+        // Remplit le cache juste après l'éviction d'une écriture : lu sur le primaire, pas sur la réplique
+        return LecturePrimaire.executer(() -> construireDashboard(agriculteurId));
+    }
 
-        Map<String, BigDecimal> surfaceParTypeCulture = buildBigDecimalMapFromObjectArray(
-                parcelleRepository.sumSurfaceByAgriculteurGroupByTypeCulture(agriculteur));
+    /**
+     * Générer les statistiques détaillées pour un agriculteur
+     */
+    @Cacheable(cacheNames = CacheConfig.STATISTIQUES, key = "#agriculteurId")
+    @Transactional(readOnly = true)
+    public StatistiquesAgriculteurDTO getStatistiques(Long agriculteurId) {
+        return LecturePrimaire.executer(() -> construireStatistiques(agriculteurId));
+    }
 
-        Map<String, Long> parcellesParStatut = buildStatutMapFromObjectArray(
-                parcelleRepository.countByAgriculteurGroupByStatut(agriculteur));
+    private DashboardAgriculteurDTO construireDashboard(Long agriculteurId) {
+        log.info("Génération du dashboard pour l'agriculteur: {}", agriculteurId);
 
-        Map<String, Long> parcellesParRegion = buildMapFromObjectArray(
-                parcelleRepository.countByAgriculteurGroupByRegion(agriculteur));
+        Agriculteur agriculteur = getAgriculteur(agriculteurId);
 
-        Map<String, Long> parcellesParCommune = buildMapFromObjectArray(
-                parcelleRepository.countByAgriculteurGroupByCommune(agriculteur));
+        // Compteurs, répartitions et irrigation lus dans parcelle_stats
+        DashboardAggregation aggregation = DashboardAggregation.fromStats(
+                parcelleStatsService.getStats(agriculteur));
 
         // Prochaines échéances (30 prochains jours)
         LocalDate maintenant = LocalDate.now();
         LocalDate dans30Jours = maintenant.plusDays(30);
-        List<Parcelle> prochainesRecoltesEntities = parcelleRepository.findProchainesRecoltesByAgriculteur(
+        List<ParcelleResumeProjection> prochainesRecoltesEntities = parcelleRepository.findProchainesRecoltesByAgriculteur(
                 agriculteur, maintenant, dans30Jours);
         List<ParcelleResumeDTO> prochainesRecoltes = prochainesRecoltesEntities.stream()
-                .map(this::mapToResumeDTO)
+                .map(ParcelleResumeProjection::versResumeDTO)
                 .collect(Collectors.toList());
 
         // Cultures en retard
         List<StatutCultureEnum> statutsTermines = Arrays.asList(
                 StatutCultureEnum.RECOLTE, StatutCultureEnum.EN_REPOS
         );
-        List<Parcelle> culturesEnRetardEntities = parcelleRepository.findCulturesEnRetardByAgriculteur(
+        List<ParcelleResumeProjection> culturesEnRetardEntities = parcelleRepository.findCulturesEnRetardByAgriculteur(
                 agriculteur, maintenant, statutsTermines);
         List<ParcelleResumeDTO> culturesEnRetard = culturesEnRetardEntities.stream()
-                .map(this::mapToResumeDTO)
+                .map(ParcelleResumeProjection::versResumeDTO)
                 .collect(Collectors.toList());
 
         // Dernières modifications (5 dernières)
-        List<Parcelle> dernieresModifEntities = parcelleRepository.findRecentlyModifiedByAgriculteur(
+        List<ParcelleResumeProjection> dernieresModifEntities = parcelleRepository.findRecentlyModifiedByAgriculteur(
                 agriculteur, PageRequest.of(0, 5));
         List<ParcelleResumeDTO> dernieresModifications = dernieresModifEntities.stream()
-                .map(this::mapToResumeDTO)
+                .map(ParcelleResumeProjection::versResumeDTO)
                 .collect(Collectors.toList());
 
-        // Statistiques irrigation
-        Long parcellesAvecIrrigation = parcelleRepository.countByAgriculteurAndIrrigationTrue(agriculteur);
-        Long parcellesSansIrrigation = parcelleRepository.countByAgriculteurAndIrrigationFalse(agriculteur);
-        BigDecimal pourcentageIrrigation = calculatePourcentageIrrigation(
-                parcellesAvecIrrigation, nombreTotalParcelles);
-
         return DashboardAgriculteurDTO.builder()
-                .nombreTotalParcelles(nombreTotalParcelles)
-                .surfaceTotaleHectares(surfaceTotale)
-                .nombreCulturesActives(culturesActives)
-                .nombreCulturesEnRecolte(culturesEnRecolte)
-                .parcellesParTypeCulture(parcellesParTypeCulture)
-                .surfaceParTypeCulture(surfaceParTypeCulture)
-                .parcellesParStatut(parcellesParStatut)
+                .nombreTotalParcelles(aggregation.getNombreTotal())
+                .surfaceTotaleHectares(aggregation.getSurfaceTotale())
+                .nombreCulturesActives(aggregation.getCulturesActives())
+                .nombreCulturesEnRecolte(aggregation.getCulturesEnRecolte())
+                .parcellesParTypeCulture(aggregation.getParTypeCulture())
+                .surfaceParTypeCulture(aggregation.getSurfaceParTypeCulture())
+                .parcellesParStatut(aggregation.getParStatut())
                 .prochainesRecoltes(prochainesRecoltes)
                 .culturesEnRetard(culturesEnRetard)
                 .dernieresModifications(dernieresModifications)
-                .parcellesParRegion(parcellesParRegion)
-                .parcellesParCommune(parcellesParCommune)
-                .parcellesAvecIrrigation(parcellesAvecIrrigation)
-                .parcellesSansIrrigation(parcellesSansIrrigation)
-                .pourcentageIrrigation(pourcentageIrrigation)
+                .parcellesParRegion(aggregation.getParRegion())
+                .parcellesParCommune(aggregation.getParCommune())
+                .parcellesAvecIrrigation(aggregation.getAvecIrrigation())
+                .parcellesSansIrrigation(aggregation.getSansIrrigation())
+                .pourcentageIrrigation(aggregation.getPourcentageIrrigation())
                 .build();
     }
 
-    /**
-     * Générer les statistiques détaillées pour un agriculteur
-     */
-    public StatistiquesAgriculteurDTO getStatistiques(Long agriculteurId) {
+    private StatistiquesAgriculteurDTO construireStatistiques(Long agriculteurId) {
         log.info("Génération des statistiques pour l'agriculteur: {}", agriculteurId);
 
         Agriculteur agriculteur = getAgriculteur(agriculteurId);
+        List<ParcelleStat> stats = parcelleStatsService.getStats(agriculteur);
+        DashboardAggregation aggregation = DashboardAggregation.fromStats(stats);
+        Map<YearMonth, ParcelleStat> plantationsParMois = indexerParMois(stats);
 
         // Évolution sur 12 mois
-        Map<String, Long> evolutionParcellesParMois = calculateEvolutionParcelles(agriculteur);
-        Map<String, BigDecimal> evolutionSurfaceParMois = calculateEvolutionSurface(agriculteur);
+        EvolutionMensuelle evolution = calculateEvolutionMensuelle(plantationsParMois);
 
         // Productivité par culture
-        Map<String, BigDecimal> surfaceMoyenneParCulture = calculateSurfaceMoyenneParCulture(agriculteur);
+        Map<String, BigDecimal> surfaceMoyenneParCulture = aggregation.getSurfaceMoyenneParTypeCulture();
         Map<String, Integer> dureeVieParCulture = calculateDureeVieParCulture(agriculteur);
 
         // Tendances saisonnières
-        Map<String, Long> plantationsParSaison = calculatePlantationsParSaison(agriculteur);
-        Map<String, Long> recoltesParSaison = calculateRecoltesParSaison(agriculteur);
+        Map<String, Long> plantationsParSaison = calculatePlantationsParSaison(plantationsParMois);
+        Map<String, Long> recoltesParSaison = calculateRecoltesParSaison(plantationsParMois);
 
         // Performance par région
-        Map<String, BigDecimal> rendementParRegion = calculateRendementParRegion(agriculteur);
+        Map<String, BigDecimal> rendementParRegion = calculateRendementParRegion(aggregation);
 
         // Historique des récoltes (6 derniers mois)
         Map<LocalDate, Long> historiqueRecoltes = calculateHistoriqueRecoltes(agriculteur);
 
         // Utilisation des ressources
-        BigDecimal tauxUtilisationIrrigation = calculateTauxIrrigation(agriculteur);
+        BigDecimal tauxUtilisationIrrigation = aggregation.getPourcentageIrrigation();
 
         return StatistiquesAgriculteurDTO.builder()
-                .evolutionParcellesParMois(evolutionParcellesParMois)
-                .evolutionSurfaceParMois(evolutionSurfaceParMois)
+                .evolutionParcellesParMois(evolution.parcelles)
+                .evolutionSurfaceParMois(evolution.surfaces)
                 .surfaceMoyenneParCulture(surfaceMoyenneParCulture)
                 .dureeVieParCulture(dureeVieParCulture)
                 .plantationsParSaison(plantationsParSaison)
@@ -174,126 +161,36 @@ public class DashboardService {
                 .orElseThrow(() -> new ResourceNotFoundException("Agriculteur non trouvé"));
     }
 
-    private Map<String, Long> buildMapFromObjectArray(List<Object[]> results) {
-        return results.stream()
-                .collect(Collectors.toMap(
-                        row -> row[0] != null ? row[0].toString() : "Non spécifié",
-                        row -> ((Number) row[1]).longValue(),
-                        (existing, replacement) -> existing,
-                        LinkedHashMap::new));
-    }
-
-    private Map<String, BigDecimal> buildBigDecimalMapFromObjectArray(List<Object[]> results) {
-        return results.stream()
-                .collect(Collectors.toMap(
-                        row -> row[0] != null ? row[0].toString() : "Non spécifié",
-                        row -> (BigDecimal) row[1],
-                        (existing, replacement) -> existing,
-                        LinkedHashMap::new));
-    }
-
-    private Map<String, Long> buildStatutMapFromObjectArray(List<Object[]> results) {
-        return results.stream()
-                .collect(Collectors.toMap(
-                        row -> ((StatutCultureEnum) row[0]).getLibelle(),
-                        row -> ((Number) row[1]).longValue(),
-                        (existing, replacement) -> existing,
-                        LinkedHashMap::new));
-    }
-
-    private ParcelleResumeDTO mapToResumeDTO(Parcelle parcelle) {
-        return ParcelleResumeDTO.builder()
-                .id(parcelle.getId())
-                .nomParcelle(parcelle.getNomParcelle())
-                .surfaceHectares(parcelle.getSurfaceHectares())
-                .typeCulture(parcelle.getTypeCulture())
-                .commune(parcelle.getCommune())
-                .statutCulture(parcelle.getStatutCulture())
-                .statutCultureLibelle(parcelle.getStatutCulture().getLibelle())
-                .datePlantation(parcelle.getDatePlantation())
-                .dateRecoltePrevue(parcelle.getDateRecoltePrevue())
-                .irrigation(parcelle.getIrrigation())
-                .joursAvantRecolte(calculateJoursAvantRecolte(parcelle.getDateRecoltePrevue()))
-                .build();
-    }
-
-    private Integer calculateJoursAvantRecolte(LocalDate dateRecoltePrevue) {
-        if (dateRecoltePrevue == null) return null;
-
-        LocalDate today = LocalDate.now();
-        return (int) ChronoUnit.DAYS.between(today, dateRecoltePrevue);
-    }
-
-    private BigDecimal calculatePourcentageIrrigation(Long avecIrrigation, Long total) {
-        if (total == 0) return BigDecimal.ZERO;
-
-        return BigDecimal.valueOf(avecIrrigation)
-                .multiply(BigDecimal.valueOf(100))
-                .divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
-    }
-
     // Méthodes de calcul des statistiques avancées
 
-    private Map<String, Long> calculateEvolutionParcelles(Agriculteur agriculteur) {
-        Map<String, Long> evolution = new LinkedHashMap<>();
-        LocalDate maintenant = LocalDate.now();
-
-        for (int i = 11; i >= 0; i--) {
-            LocalDate debutMois = maintenant.minusMonths(i).withDayOfMonth(1);
-            LocalDate finMois = debutMois.plusMonths(1).minusDays(1);
-
-            List<Parcelle> parcellesDuMois = parcelleRepository.findByAgriculteurAndDatePlantationBetween(
-                    agriculteur, debutMois, finMois);
-
-            String moisAnnee = debutMois.format(DateTimeFormatter.ofPattern("MM/yyyy"));
-            evolution.put(moisAnnee, (long) parcellesDuMois.size());
+    private Map<YearMonth, ParcelleStat> indexerParMois(List<ParcelleStat> stats) {
+        Map<YearMonth, ParcelleStat> parMois = new HashMap<>();
+        for (ParcelleStat stat : stats) {
+            if (stat.getId().getDimension() == DimensionStatEnum.MOIS_PLANTATION && stat.getNombre() > 0) {
+                parMois.put(YearMonth.parse(stat.getId().getCle()), stat);
+            }
         }
-
-        return evolution;
+        return parMois;
     }
 
-    private Map<String, BigDecimal> calculateEvolutionSurface(Agriculteur agriculteur) {
-        Map<String, BigDecimal> evolution = new LinkedHashMap<>();
-        LocalDate maintenant = LocalDate.now();
-
-        for (int i = 11; i >= 0; i--) {
-            LocalDate debutMois = maintenant.minusMonths(i).withDayOfMonth(1);
-            LocalDate finMois = debutMois.plusMonths(1).minusDays(1);
+    private EvolutionMensuelle calculateEvolutionMensuelle(Map<YearMonth, ParcelleStat> plantationsParMois) {
+        YearMonth moisCourant = YearMonth.now();
+        YearMonth premierMois = moisCourant.minusMonths(11);
 
-            List<Parcelle> parcellesDuMois = parcelleRepository.findByAgriculteurAndDatePlantationBetween(
-                    agriculteur, debutMois, finMois);
+        EvolutionMensuelle evolution = new EvolutionMensuelle();
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("MM/yyyy");
 
-            BigDecimal surfaceTotale = parcellesDuMois.stream()
-                    .map(Parcelle::getSurfaceHectares)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        for (YearMonth mois = premierMois; !mois.isAfter(moisCourant); mois = mois.plusMonths(1)) {
+            ParcelleStat stat = plantationsParMois.get(mois);
+            String moisAnnee = mois.format(format);
 
-            String moisAnnee = debutMois.format(DateTimeFormatter.ofPattern("MM/yyyy"));
-            evolution.put(moisAnnee, surfaceTotale);
+            evolution.parcelles.put(moisAnnee, stat != null ? stat.getNombre() : 0L);
+            evolution.surfaces.put(moisAnnee, stat != null ? stat.getSurface() : BigDecimal.ZERO);
         }
 
         return evolution;
     }
 
-    private Map<String, BigDecimal> calculateSurfaceMoyenneParCulture(Agriculteur agriculteur) {
-        Map<String, Long> counts = buildMapFromObjectArray(
-                parcelleRepository.countByAgriculteurGroupByTypeCulture(agriculteur));
-        Map<String, BigDecimal> surfaces = buildBigDecimalMapFromObjectArray(
-                parcelleRepository.sumSurfaceByAgriculteurGroupByTypeCulture(agriculteur));
-
-        Map<String, BigDecimal> moyennes = new LinkedHashMap<>();
-        for (String culture : counts.keySet()) {
-            BigDecimal surfaceTotale = surfaces.getOrDefault(culture, BigDecimal.ZERO);
-            Long nombre = counts.get(culture);
-
-            if (nombre > 0) {
-                BigDecimal moyenne = surfaceTotale.divide(BigDecimal.valueOf(nombre), 2, RoundingMode.HALF_UP);
-                moyennes.put(culture, moyenne);
-            }
-        }
-
-        return moyennes;
-    }
-
     private Map<String, Integer> calculateDureeVieParCulture(Agriculteur agriculteur) {
         // Simplifié - calcul basé sur des moyennes standard
         Map<String, Integer> durees = new HashMap<>();
@@ -304,36 +201,31 @@ public class DashboardService {
         return durees;
     }
 
-    private Map<String, Long> calculatePlantationsParSaison(Agriculteur agriculteur) {
-        List<Parcelle> parcelles = parcelleRepository.findByAgriculteurOrderByDateCreationDesc(agriculteur);
-
+    private Map<String, Long> calculatePlantationsParSaison(Map<YearMonth, ParcelleStat> plantationsParMois) {
         Map<String, Long> parSaison = new HashMap<>();
         parSaison.put("Saison sèche", 0L);
         parSaison.put("Saison des pluies", 0L);
 
-        for (Parcelle parcelle : parcelles) {
-            if (parcelle.getDatePlantation() != null) {
-                int mois = parcelle.getDatePlantation().getMonthValue();
-                if (mois >= 6 && mois <= 10) {  // Juin à Octobre = saison des pluies
-                    parSaison.put("Saison des pluies", parSaison.get("Saison des pluies") + 1);
-                } else {
-                    parSaison.put("Saison sèche", parSaison.get("Saison sèche") + 1);
-                }
+        plantationsParMois.forEach((moisAnnee, stat) -> {
+            int mois = moisAnnee.getMonthValue();
+            if (mois >= 6 && mois <= 10) {  // Juin à Octobre = saison des pluies
+                parSaison.merge("Saison des pluies", stat.getNombre(), Long::sum);
+            } else {
+                parSaison.merge("Saison sèche", stat.getNombre(), Long::sum);
             }
-        }
+        });
 
         return parSaison;
     }
 
-    private Map<String, Long> calculateRecoltesParSaison(Agriculteur agriculteur) {
+    private Map<String, Long> calculateRecoltesParSaison(Map<YearMonth, ParcelleStat> plantationsParMois) {
         // Calcul similaire basé sur les dates de récolte prévues/effectives
-        return calculatePlantationsParSaison(agriculteur); // Simplifié pour l'exemple
+        return calculatePlantationsParSaison(plantationsParMois); // Simplifié pour l'exemple
     }
 
-    private Map<String, BigDecimal> calculateRendementParRegion(Agriculteur agriculteur) {
+    private Map<String, BigDecimal> calculateRendementParRegion(DashboardAggregation aggregation) {
         Map<String, BigDecimal> rendements = new HashMap<>();
-        Map<String, BigDecimal> surfaces = buildBigDecimalMapFromObjectArray(
-                parcelleRepository.sumSurfaceByAgriculteurGroupByRegion(agriculteur));
+        Map<String, BigDecimal> surfaces = aggregation.getSurfaceParRegion();
 
         // Rendement fictif pour démonstration
         for (String region : surfaces.keySet()) {
@@ -356,10 +248,9 @@ public class DashboardService {
         return historique;
     }
 
-    private BigDecimal calculateTauxIrrigation(Agriculteur agriculteur) {
-        Long total = parcelleRepository.countByAgriculteur(agriculteur);
-        Long avecIrrigation = parcelleRepository.countByAgriculteurAndIrrigationTrue(agriculteur);
-
-        return calculatePourcentageIrrigation(avecIrrigation, total);
+    // Séries mensuelles produites ensemble par calculateEvolutionMensuelle
+    private static class EvolutionMensuelle {
+        private final Map<String, Long> parcelles = new LinkedHashMap<>();
+        private final Map<String, BigDecimal> surfaces = new LinkedHashMap<>();
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.agriculture.mauritanie.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tampon des dates de dernière connexion.
+ * Les connexions d'un même utilisateur sont fusionnées (la plus récente gagne)
+ * puis écrites périodiquement par lots JDBC, hors du chemin de login.
+ */
+@Service
+@Slf4j
+public class DerniereConnexionBuffer {
+
+    private static final String UPDATE_SQL =
+            "UPDATE users SET date_derniere_connexion = ? " +
+            "WHERE id = ? AND (date_derniere_connexion IS NULL OR date_derniere_connexion < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LocalDateTime> enAttente = new ConcurrentHashMap<>();
+    private final Counter ecritures;
+
+    public DerniereConnexionBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("auth.derniere_connexion.buffer", enAttente, Map::size)
+                .description("Dates de dernière connexion en attente d'écriture")
+                .register(meterRegistry);
+        this.ecritures = Counter.builder("auth.derniere_connexion.ecritures")
+                .description("Dates de dernière connexion écrites en base")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre une connexion ; aucun accès base n'est fait ici
+     */
+    public void enregistrer(Long userId, LocalDateTime date) {
+        enAttente.merge(userId, date, (ancienne, nouvelle) -> nouvelle.isAfter(ancienne) ? nouvelle : ancienne);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.derniere-connexion.flush-interval:10000}")
+    public void flush() {
+        if (enAttente.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> lots = new ArrayList<>();
+        for (Map.Entry<Long, LocalDateTime> entry : enAttente.entrySet()) {
+            // Retrait conditionnel : une connexion arrivée entre-temps reste pour le prochain flush
+            if (enAttente.remove(entry.getKey(), entry.getValue())) {
+                Timestamp date = Timestamp.valueOf(entry.getValue());
+                lots.add(new Object[]{date, entry.getKey(), date});
+            }
+        }
+
+        if (lots.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, lots);
+            ecritures.increment(lots.size());
+            log.debug("{} dates de dernière connexion écrites", lots.size());
+        } catch (RuntimeException e) {
+            log.error("Échec de l'écriture des dernières connexions, nouvel essai au prochain flush: {}", e.getMessage());
+            for (Object[] ligne : lots) {
+                enregistrer((Long) ligne[1], ((Timestamp) ligne[0]).toLocalDateTime());
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushAvantArret() {
+        log.info("Écriture des dernières connexions en attente avant arrêt ({})", enAttente.size());
+        flush();
+    }
+}
@@ -0,0 +1,153 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hachage et vérification BCrypt sur un pool dédié et borné.
+ * Une rafale de connexions ne peut plus occuper tous les threads Tomcat :
+ * au-delà de la concurrence et de la file configurées, la requête échoue immédiatement en 503.
+ * Un calcul BCrypt commencé ne s'interrompt pas (Future.cancel n'a pas d'effet sur lui) : après un
+ * dépassement du délai, son thread reste occupé jusqu'à la fin du calcul. La file est donc bornée
+ * à ce que le pool peut traiter dans le délai, d'après le coût BCrypt mesuré au démarrage :
+ * une requête acceptée attend sans dépasser le délai au lieu de nourrir des calculs abandonnés.
+ */
+@Service
+@Slf4j
+public class HachageMotDePasseService {
+
+    private static final String SERVICE = "hachage-mot-de-passe";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer timerHacher;
+    private final Timer timerVerifier;
+
+    public HachageMotDePasseService(PasswordEncoder passwordEncoder,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.security.hachage.concurrence:4}") int concurrence,
+                                    @Value("${app.security.hachage.file:64}") int capaciteFile,
+                                    @Value("${app.security.hachage.timeout:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+
+        int capacite = capaciteDansLeDelai(concurrence, capaciteFile, timeoutMs, mesurerCoutMs());
+        if (capacite < capaciteFile) {
+            log.warn("File de hachage ramenée de {} à {} places pour tenir le délai de {} ms",
+                    capaciteFile, capacite, timeoutMs);
+        }
+        AtomicInteger compteur = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrence, concurrence, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacite),
+                r -> {
+                    Thread thread = new Thread(r, "hachage-mdp-" + compteur.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.timerHacher = timer(meterRegistry, "hacher");
+        this.timerVerifier = timer(meterRegistry, "verifier");
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size())
+                .description("Opérations de hachage en attente")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Opérations de hachage en cours")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encode un mot de passe en clair
+     */
+    public String hacher(String motDePasse) {
+        return executer(() -> passwordEncoder.encode(motDePasse), timerHacher);
+    }
+
+    /**
+     * Compare un mot de passe en clair avec son empreinte
+     */
+    public boolean verifier(String motDePasse, String hash) {
+        return executer(() -> passwordEncoder.matches(motDePasse, hash), timerVerifier);
+    }
+
+    private <T> T executer(Callable<T> operation, Timer timer) {
+        long debut = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(operation);
+        } catch (RejectedExecutionException e) {
+            log.warn("Pool de hachage saturé ({} en cours, {} en attente)",
+                    executor.getActiveCount(), executor.getQueue().size());
+            throw new ServiceUnavailableException("Service d'authentification surchargé, veuillez réessayer", SERVICE);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Retire l'opération si elle attend encore dans la file ; commencée, elle va jusqu'au bout
+            future.cancel(false);
+            executor.purge();
+            throw new ServiceUnavailableException("Délai d'authentification dépassé, veuillez réessayer", SERVICE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Authentification interrompue", SERVICE, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Erreur lors du hachage du mot de passe", e.getCause());
+        } finally {
+            timer.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Places de file utiles : une opération en attente doit pouvoir commencer puis finir dans le délai
+     */
+    static int capaciteDansLeDelai(int concurrence, int capaciteFile, long timeoutMs, long coutMs) {
+        if (coutMs <= 0) {
+            return capaciteFile;
+        }
+        long tours = timeoutMs / coutMs - 1;
+        return (int) Math.max(1, Math.min(capaciteFile, concurrence * tours));
+    }
+
+    private long mesurerCoutMs() {
+        long debut = System.nanoTime();
+        passwordEncoder.encode("mesure-du-cout");
+        long coutMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+        log.info("Coût BCrypt mesuré au démarrage: {} ms", coutMs);
+        return coutMs;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password")
+                .description("Latence du hachage BCrypt, attente dans la file comprise")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void arreter() {
+        executor.shutdown();
+    }
+}
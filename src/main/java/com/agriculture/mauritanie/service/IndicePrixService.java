@@ -0,0 +1,311 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.prix.IndicePrixDTO;
+import com.agriculture.mauritanie.dto.prix.PrixOffreProjection;
+import com.agriculture.mauritanie.entity.OffreMarche;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import com.agriculture.mauritanie.repository.OffreMarcheRepository;
+import com.agriculture.mauritanie.util.EsquisseQuantiles;
+import com.agriculture.mauritanie.util.NormalisationTexte;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Indice des prix du marché par (produit, région, unité).
+ * Maintenu en mémoire à chaque publication, modification ou retrait d'offre ; la médiane est
+ * estimée par une esquisse de quantiles (±1 %) au lieu d'un tri des prix à chaque consultation,
+ * les prix minimum et maximum sont exacts (prix distincts comptés par série).
+ * KG et TONNE sont ramenés au kilogramme, les autres unités restent séparées.
+ * Reconstruit depuis la table au démarrage puis chaque nuit, ce qui fait glisser la fenêtre.
+ */
+@Service
+@Slf4j
+public class IndicePrixService {
+
+    private static final double PRECISION_RELATIVE = 0.01;
+    private static final Pattern ESPACES = Pattern.compile("\\s+");
+
+    private final OffreMarcheRepository offreMarcheRepository;
+    private final Duration fenetre;
+    private final Timer dureeReconstruction;
+
+    private volatile Index index = new Index();
+
+    // Contributions modifiées pendant une reconstruction, rejouées après la bascule ; accès synchronisés sur this
+    private Map<Long, Optional<Contribution>> modifiesPendantReconstruction;
+
+    public IndicePrixService(OffreMarcheRepository offreMarcheRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.prix.fenetre:P30D}") Duration fenetre) {
+        this.offreMarcheRepository = offreMarcheRepository;
+        this.fenetre = fenetre;
+        Gauge.builder("prix.offres", this, service -> service.index.contributions.size())
+                .description("Offres prises en compte dans l'indice des prix")
+                .register(meterRegistry);
+        this.dureeReconstruction = Timer.builder("prix.reconstruction")
+                .description("Durée de reconstruction de l'indice des prix")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Prix d'un produit, dans une région ou dans toutes
+     */
+    public List<IndicePrixDTO> consulter(String produit, String region) {
+        Map<String, Statistique> series = index.parProduit.get(cle(produit));
+        if (series == null) {
+            return List.of();
+        }
+
+        String regionCle = region != null && !region.isBlank() ? cle(region) : null;
+        List<IndicePrixDTO> indices = new ArrayList<>();
+        for (Statistique statistique : series.values()) {
+            if (regionCle == null || regionCle.equals(statistique.regionCle)) {
+                statistique.versDTO().ifPresent(indices::add);
+            }
+        }
+        indices.sort(Comparator.comparing(IndicePrixDTO::getRegion, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(IndicePrixDTO::getUnite));
+        return indices;
+    }
+
+    /**
+     * Prend en compte l'état courant d'une offre (ajout, changement de prix, de quantité ou de statut)
+     */
+    public synchronized void mettreAJour(OffreMarche offre) {
+        Optional<Contribution> contribution = offre.getStatut() == StatutOffreEnum.DISPONIBLE && dansLaFenetre(offre)
+                ? Contribution.de(offre.getProduit(), offre.getRegion(), offre.getUnite(),
+                        offre.getPrixUnitaire(), offre.getQuantite())
+                : Optional.empty();
+        appliquer(offre.getId(), contribution);
+    }
+
+    public synchronized void retirer(Collection<Long> offreIds) {
+        for (Long offreId : offreIds) {
+            appliquer(offreId, Optional.empty());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        reconstruire();
+    }
+
+    /**
+     * Recalcule l'indice depuis les offres disponibles publiées dans la fenêtre
+     */
+    @Scheduled(cron = "${app.prix.reconstruction-cron:0 0 3 * * *}")
+    public void reconstruire() {
+        synchronized (this) {
+            modifiesPendantReconstruction = new LinkedHashMap<>();
+        }
+
+        Index nouvelIndex = new Index();
+        Timer.Sample sample = Timer.start();
+        try {
+            for (PrixOffreProjection ligne : offreMarcheRepository.findPrixDisponibles(
+                    StatutOffreEnum.DISPONIBLE, LocalDateTime.now().minus(fenetre))) {
+                Contribution.de(ligne.getProduit(), ligne.getRegion(), ligne.getUnite(),
+                                ligne.getPrixUnitaire(), ligne.getQuantite())
+                        .ifPresent(contribution -> nouvelIndex.ajouter(ligne.getId(), contribution));
+            }
+        } catch (RuntimeException e) {
+            log.error("Échec de la reconstruction de l'indice des prix: {}", e.getMessage());
+            synchronized (this) {
+                modifiesPendantReconstruction = null;
+            }
+            return;
+        } finally {
+            sample.stop(dureeReconstruction);
+        }
+
+        synchronized (this) {
+            modifiesPendantReconstruction.forEach((id, contribution) -> {
+                nouvelIndex.retirer(id);
+                contribution.ifPresent(c -> nouvelIndex.ajouter(id, c));
+            });
+            modifiesPendantReconstruction = null;
+            index = nouvelIndex;
+        }
+        log.info("Indice des prix reconstruit: {} offres, {} produits",
+                nouvelIndex.contributions.size(), nouvelIndex.parProduit.size());
+    }
+
+    // Même filtre que findPrixDisponibles ; une offre pas encore horodatée vient d'être publiée
+    private boolean dansLaFenetre(OffreMarche offre) {
+        return offre.getDatePublication() == null
+                || !offre.getDatePublication().isBefore(LocalDateTime.now().minus(fenetre));
+    }
+
+    private void appliquer(Long offreId, Optional<Contribution> contribution) {
+        index.retirer(offreId);
+        contribution.ifPresent(c -> index.ajouter(offreId, c));
+        if (modifiesPendantReconstruction != null) {
+            modifiesPendantReconstruction.put(offreId, contribution);
+        }
+    }
+
+    private static String cle(String texte) {
+        return ESPACES.matcher(NormalisationTexte.normaliser(texte).trim()).replaceAll(" ");
+    }
+
+    private static BigDecimal arrondi(double valeur) {
+        return BigDecimal.valueOf(valeur).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Apport d'une offre à sa série : prix et quantité dans l'unité de l'indice
+     */
+    private static final class Contribution {
+        private final String produit;
+        private final String region;
+        private final UniteEnum unite;
+        private final double prix;
+        private final double volume;
+        private final String produitCle;
+        private final String regionCle;
+
+        private Contribution(String produit, String region, UniteEnum unite, double prix, double volume) {
+            this.produit = produit;
+            this.region = region;
+            this.unite = unite;
+            this.prix = prix;
+            this.volume = volume;
+            this.produitCle = cle(produit);
+            this.regionCle = region != null ? cle(region) : "";
+        }
+
+        static Optional<Contribution> de(String produit, String region, UniteEnum unite,
+                                         BigDecimal prixUnitaire, BigDecimal quantite) {
+            if (produit == null || produit.isBlank() || unite == null
+                    || prixUnitaire == null || prixUnitaire.signum() <= 0) {
+                return Optional.empty();
+            }
+            double prix = prixUnitaire.doubleValue();
+            double volume = quantite != null ? quantite.doubleValue() : 0;
+            UniteEnum uniteIndice = unite;
+            if (unite.isConvertibleEnKg()) {
+                prix = prix / unite.getKilogrammes();
+                volume = volume * unite.getKilogrammes();
+                uniteIndice = UniteEnum.KG;
+            }
+            return Optional.of(new Contribution(produit.trim(), region != null ? region.trim() : null,
+                    uniteIndice, prix, volume));
+        }
+
+        String serie() {
+            return regionCle + '|' + unite.name();
+        }
+    }
+
+    /**
+     * Série de prix d'un (produit, région, unité)
+     */
+    private static final class Statistique {
+        private final String produit;
+        private final String region;
+        private final String regionCle;
+        private final UniteEnum unite;
+        private final EsquisseQuantiles esquisse = new EsquisseQuantiles(PRECISION_RELATIVE);
+        // Nombre d'offres par prix distinct : extrêmes exacts, là où l'esquisse donnerait le milieu d'un seau
+        private final TreeMap<Double, Integer> extremes = new TreeMap<>();
+        private double volume;
+
+        Statistique(Contribution contribution) {
+            this.produit = contribution.produit;
+            this.region = contribution.region;
+            this.regionCle = contribution.regionCle;
+            this.unite = contribution.unite;
+        }
+
+        synchronized void ajouter(Contribution contribution) {
+            esquisse.ajouter(contribution.prix);
+            extremes.merge(contribution.prix, 1, Integer::sum);
+            volume += contribution.volume;
+        }
+
+        synchronized void retirer(Contribution contribution) {
+            esquisse.retirer(contribution.prix);
+            extremes.computeIfPresent(contribution.prix, (prix, nombre) -> nombre > 1 ? nombre - 1 : null);
+            volume = Math.max(0, volume - contribution.volume);
+        }
+
+        synchronized boolean isVide() {
+            return esquisse.isVide();
+        }
+
+        synchronized Optional<IndicePrixDTO> versDTO() {
+            if (esquisse.isVide()) {
+                return Optional.empty();
+            }
+            return Optional.of(IndicePrixDTO.builder()
+                    .produit(produit)
+                    .region(region)
+                    .unite(unite)
+                    .uniteLibelle(unite.getLibelle())
+                    .nombreOffres(esquisse.getNombre())
+                    .prixMin(arrondi(extremes.firstKey()))
+                    .prixMedian(arrondi(esquisse.quantile(0.5)))
+                    .prixMax(arrondi(extremes.lastKey()))
+                    .volume(arrondi(volume))
+                    .build());
+        }
+    }
+
+    private static final class Index {
+        private final Map<Long, Contribution> contributions = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, Statistique>> parProduit = new ConcurrentHashMap<>();
+
+        void ajouter(Long offreId, Contribution contribution) {
+            contributions.put(offreId, contribution);
+            parProduit.computeIfAbsent(contribution.produitCle, cle -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(contribution.serie(), cle -> new Statistique(contribution))
+                    .ajouter(contribution);
+        }
+
+        void retirer(Long offreId) {
+            Contribution contribution = contributions.remove(offreId);
+            if (contribution == null) {
+                return;
+            }
+            Map<String, Statistique> series = parProduit.get(contribution.produitCle);
+            if (series == null) {
+                return;
+            }
+            Statistique statistique = series.get(contribution.serie());
+            if (statistique == null) {
+                return;
+            }
+            statistique.retirer(contribution);
+            if (statistique.isVide()) {
+                series.remove(contribution.serie());
+                if (series.isEmpty()) {
+                    parProduit.remove(contribution.produitCle);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.repository.OffreMarcheRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passage des offres échues au statut EXPIRE.
+ * Le balayage parcourt l'index (statut, date_expiration) par lots bornés, puis se
+ * replanifie à la prochaine échéance connue au lieu d'interroger la table à intervalle fixe.
+ */
+@Service
+@Slf4j
+public class OffreExpirationService {
+
+    private final OffreMarcheRepository offreMarcheRepository;
+    private final IndicePrixService indicePrixService;
+    private final TransactionTemplate transaction;
+    private final TaskScheduler taskScheduler;
+    private final int tailleLot;
+    private final Duration attenteMax;
+
+    private final AtomicLong enRetard = new AtomicLong();
+    private final Timer dureeBalayage;
+
+    // Passage planifié ; accès synchronisés sur this
+    private ScheduledFuture<?> prochainBalayage;
+    private Instant prochainPassage;
+
+    public OffreExpirationService(OffreMarcheRepository offreMarcheRepository,
+                                  IndicePrixService indicePrixService,
+                                  PlatformTransactionManager transactionManager,
+                                  TaskScheduler taskScheduler,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.offres.expiration.taille-lot:500}") int tailleLot,
+                                  @Value("${app.offres.expiration.attente-max:PT15M}") Duration attenteMax) {
+        this.offreMarcheRepository = offreMarcheRepository;
+        this.indicePrixService = indicePrixService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.tailleLot = tailleLot;
+        this.attenteMax = attenteMax;
+
+        Gauge.builder("offres.expiration.backlog", enRetard, AtomicLong::get)
+                .description("Offres échues encore disponibles au début du dernier balayage")
+                .register(meterRegistry);
+        this.dureeBalayage = Timer.builder("offres.expiration.balayage")
+                .description("Durée d'un balayage des offres échues")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        planifier(Instant.now());
+    }
+
+    /**
+     * Signale une date d'expiration posée sur une offre disponible ;
+     * avance le prochain balayage si elle tombe avant
+     */
+    public void signaler(LocalDateTime dateExpiration) {
+        if (dateExpiration != null) {
+            planifier(versInstant(dateExpiration));
+        }
+    }
+
+    /**
+     * Expire toutes les offres échues, lot par lot
+     */
+    public int balayer() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        Timer.Sample sample = Timer.start();
+        int total = 0;
+        try {
+            enRetard.set(offreMarcheRepository
+                    .countByStatutAndDateExpirationLessThanEqual(StatutOffreEnum.DISPONIBLE, maintenant));
+
+            List<Long> ids;
+            do {
+                ids = offreMarcheRepository.findIdsExpirees(
+                        StatutOffreEnum.DISPONIBLE, maintenant, PageRequest.of(0, tailleLot));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                List<Long> lot = ids;
+                // Une offre vendue ou réservée entre la lecture et l'UPDATE reste dans l'indice
+                List<Long> expirees = transaction.execute(status -> {
+                    offreMarcheRepository.expirer(lot, maintenant);
+                    return offreMarcheRepository.findIdsByIdInAndStatut(lot, StatutOffreEnum.EXPIRE);
+                });
+                if (expirees != null && !expirees.isEmpty()) {
+                    total += expirees.size();
+                    indicePrixService.retirer(expirees);
+                }
+            } while (ids.size() == tailleLot);
+        } finally {
+            sample.stop(dureeBalayage);
+        }
+
+        if (total > 0) {
+            log.info("{} offres passées au statut expiré", total);
+        }
+        return total;
+    }
+
+    @PreDestroy
+    synchronized void arreter() {
+        if (prochainBalayage != null) {
+            prochainBalayage.cancel(false);
+        }
+    }
+
+    private void executer() {
+        synchronized (this) {
+            prochainBalayage = null;
+            prochainPassage = null;
+        }
+
+        Instant suivant = Instant.now().plus(attenteMax);
+        try {
+            balayer();
+            LocalDateTime prochaine = offreMarcheRepository
+                    .findProchaineExpiration(StatutOffreEnum.DISPONIBLE, LocalDateTime.now());
+            if (prochaine != null && versInstant(prochaine).isBefore(suivant)) {
+                suivant = versInstant(prochaine);
+            }
+        } catch (RuntimeException e) {
+            log.error("Échec du balayage des offres expirées, nouvel essai dans {}: {}", attenteMax, e.getMessage());
+        }
+        // attenteMax borne le sommeil : rattrape les offres publiées par une autre instance
+        planifier(suivant);
+    }
+
+    private synchronized void planifier(Instant date) {
+        if (prochainPassage != null && !date.isBefore(prochainPassage)) {
+            return;
+        }
+        if (prochainBalayage != null) {
+            prochainBalayage.cancel(false);
+        }
+        prochainPassage = date;
+        prochainBalayage = taskScheduler.schedule(this::executer, date);
+        log.debug("Prochain balayage des offres expirées: {}", date);
+    }
+
+    private static Instant versInstant(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,344 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.appariement.AcheteurCorrespondantDTO;
+import com.agriculture.mauritanie.dto.geo.ElementProximiteDTO;
+import com.agriculture.mauritanie.dto.offre.*;
+import com.agriculture.mauritanie.entity.Acheteur;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.OffreMarche;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.exception.ResourceNotFoundException;
+import com.agriculture.mauritanie.exception.ValidationException;
+import com.agriculture.mauritanie.repository.OffreMarcheRepository;
+import com.agriculture.mauritanie.repository.OffreMarcheRepositoryCustom.Position;
+import com.agriculture.mauritanie.repository.UserRepository;
+import com.agriculture.mauritanie.util.ApresCommit;
+import com.agriculture.mauritanie.util.GeoUtil;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OffreMarcheService {
+
+    private static final int TAILLE_PAGE_MAX = 100;
+
+    private final OffreMarcheRepository offreMarcheRepository;
+    private final UserRepository userRepository;
+    private final OffreVuesCompteur offreVuesCompteur;
+    private final OffreExpirationService offreExpirationService;
+    private final AppariementService appariementService;
+    private final IndicePrixService indicePrixService;
+
+    /**
+     * Publier une nouvelle offre
+     */
+    @Transactional
+    public OffreDTO publierOffre(Long vendeurId, CreateOffreRequest request) {
+        log.info("Publication d'une offre pour l'agriculteur: {}", vendeurId);
+
+        Agriculteur vendeur = getAgriculteur(vendeurId);
+        validateExpiration(request.getDateExpiration());
+
+        OffreMarche offre = new OffreMarche();
+        offre.setProduit(request.getProduit());
+        offre.setVariete(request.getVariete());
+        offre.setQuantite(request.getQuantite());
+        offre.setUnite(request.getUnite());
+        offre.setPrixUnitaire(request.getPrixUnitaire());
+        if (request.getPrixNegociable() != null) {
+            offre.setPrixNegociable(request.getPrixNegociable());
+        }
+        // Localisation du vendeur par défaut
+        offre.setCommune(request.getCommune() != null ? request.getCommune() : vendeur.getCommune());
+        offre.setRegion(request.getRegion() != null ? request.getRegion() : vendeur.getRegion());
+        offre.setDescription(request.getDescription());
+        if (request.getQualite() != null) {
+            offre.setQualite(request.getQualite());
+        }
+        if (request.getCertification() != null) {
+            offre.setCertification(request.getCertification());
+        }
+        offre.setDateRecolte(request.getDateRecolte());
+        offre.setDateRecoltePrevue(request.getDateRecoltePrevue());
+        offre.setDateExpiration(request.getDateExpiration());
+        offre.setLatitude(request.getLatitude());
+        offre.setLongitude(request.getLongitude());
+        offre.setVendeur(vendeur);
+
+        OffreMarche savedOffre = offreMarcheRepository.save(offre);
+        log.info("Offre publiée avec succès: {}", savedOffre.getId());
+        ApresCommit.executer(() -> offreExpirationService.signaler(savedOffre.getDateExpiration()));
+        ApresCommit.executer(() -> indicePrixService.mettreAJour(savedOffre));
+
+        OffreDTO dto = mapToDTO(savedOffre);
+        dto.setNombreAcheteursInteresses(appariementService.apparier(savedOffre).size());
+        return dto;
+    }
+
+    /**
+     * Modifier une offre du vendeur
+     */
+    @Transactional
+    public OffreDTO modifierOffre(Long vendeurId, Long offreId, UpdateOffreRequest request) {
+        log.info("Modification de l'offre {} pour l'agriculteur: {}", offreId, vendeurId);
+
+        OffreMarche offre = getOffreDuVendeur(vendeurId, offreId);
+        validateExpiration(request.getDateExpiration());
+
+        offre.setProduit(request.getProduit());
+        offre.setVariete(request.getVariete());
+        offre.setQuantite(request.getQuantite());
+        offre.setUnite(request.getUnite());
+        offre.setPrixUnitaire(request.getPrixUnitaire());
+        if (request.getPrixNegociable() != null) {
+            offre.setPrixNegociable(request.getPrixNegociable());
+        }
+        offre.setCommune(request.getCommune());
+        offre.setRegion(request.getRegion());
+        offre.setDescription(request.getDescription());
+        if (request.getQualite() != null) {
+            offre.setQualite(request.getQualite());
+        }
+        if (request.getCertification() != null) {
+            offre.setCertification(request.getCertification());
+        }
+        offre.setDateRecolte(request.getDateRecolte());
+        offre.setDateRecoltePrevue(request.getDateRecoltePrevue());
+        offre.setDateExpiration(request.getDateExpiration());
+        offre.setLatitude(request.getLatitude());
+        offre.setLongitude(request.getLongitude());
+
+        OffreMarche savedOffre = offreMarcheRepository.save(offre);
+        if (savedOffre.getStatut() == StatutOffreEnum.DISPONIBLE) {
+            ApresCommit.executer(() -> offreExpirationService.signaler(savedOffre.getDateExpiration()));
+        }
+        ApresCommit.executer(() -> indicePrixService.mettreAJour(savedOffre));
+
+        OffreDTO dto = mapToDTO(savedOffre);
+        dto.setNombreAcheteursInteresses(appariementService.apparier(savedOffre).size());
+        return dto;
+    }
+
+    /**
+     * Changer le statut d'une offre (réservée, vendue, suspendue...)
+     */
+    @Transactional
+    public OffreDTO changerStatut(Long vendeurId, Long offreId, StatutOffreEnum statut) {
+        log.info("Changement du statut de l'offre {} vers {}", offreId, statut);
+
+        OffreMarche offre = getOffreDuVendeur(vendeurId, offreId);
+        if (statut == StatutOffreEnum.DISPONIBLE) {
+            if (offre.isExpired()) {
+                throw new ValidationException("Offre expirée",
+                        Map.of("dateExpiration", "Modifiez la date d'expiration avant de remettre l'offre en vente"));
+            }
+            ApresCommit.executer(() -> offreExpirationService.signaler(offre.getDateExpiration()));
+        }
+        offre.setStatut(statut);
+
+        OffreMarche savedOffre = offreMarcheRepository.save(offre);
+        ApresCommit.executer(() -> indicePrixService.mettreAJour(savedOffre));
+
+        return mapToDTO(savedOffre);
+    }
+
+    /**
+     * Supprimer une offre
+     */
+    @Transactional
+    public void supprimerOffre(Long vendeurId, Long offreId) {
+        log.info("Suppression de l'offre {} pour l'agriculteur: {}", offreId, vendeurId);
+
+        offreMarcheRepository.delete(getOffreDuVendeur(vendeurId, offreId));
+        ApresCommit.executer(() -> indicePrixService.retirer(List.of(offreId)));
+    }
+
+    /**
+     * Offres publiées par le vendeur connecté
+     */
+    @Transactional(readOnly = true)
+    public List<OffreResumeDTO> getMesOffres(Long vendeurId) {
+        return offreMarcheRepository.findResumesByVendeur(getAgriculteur(vendeurId));
+    }
+
+    /**
+     * Consultation publique des offres disponibles, paginée par curseur
+     */
+    @Transactional(readOnly = true)
+    public OffrePageCurseurDTO parcourirOffres(OffreFiltreRequest filtre, String curseur, int size) {
+        if (filtre.getTri() == null) {
+            filtre.setTri(OffreFiltreRequest.Tri.PRIX);
+        }
+        int taille = Math.min(Math.max(size, 1), TAILLE_PAGE_MAX);
+        Position apres = curseur == null || curseur.isBlank() ? null : CurseurOffre.decoder(curseur, filtre.getTri());
+
+        // Une ligne de plus pour savoir s'il existe une page suivante, sans COUNT
+        List<OffreResumeDTO> offres = offreMarcheRepository.parcourir(filtre, apres, taille + 1);
+        boolean aSuivant = offres.size() > taille;
+        if (aSuivant) {
+            offres = offres.subList(0, taille);
+        }
+
+        return OffrePageCurseurDTO.builder()
+                .offres(offres)
+                .curseurSuivant(aSuivant ? CurseurOffre.encoder(filtre.getTri(), offres.get(offres.size() - 1)) : null)
+                .aSuivant(aSuivant)
+                .taille(offres.size())
+                .build();
+    }
+
+    /**
+     * Détail public d'une offre
+     */
+    @Transactional(readOnly = true)
+    public OffreDTO getOffre(Long offreId) {
+        OffreMarche offre = offreMarcheRepository.findDetailById(offreId)
+                .orElseThrow(() -> new ResourceNotFoundException("Offre non trouvée"));
+
+        offreVuesCompteur.enregistrer(offreId);
+
+        OffreDTO dto = mapToDTO(offre);
+        // Vues persistées + vues encore dans le tampon
+        long vues = (offre.getNombreVues() != null ? offre.getNombreVues() : 0) + offreVuesCompteur.enAttente(offreId);
+        dto.setNombreVues((int) Math.min(vues, Integer.MAX_VALUE));
+        return dto;
+    }
+
+    /**
+     * Acheteurs dont le profil correspond à une offre du vendeur
+     */
+    @Transactional(readOnly = true)
+    public List<AcheteurCorrespondantDTO> getAcheteursCorrespondants(Long vendeurId, Long offreId, int limite) {
+        OffreMarche offre = getOffreDuVendeur(vendeurId, offreId);
+
+        List<AppariementService.Correspondance> correspondances = appariementService.apparier(offre).stream()
+                .limit(Math.max(1, Math.min(limite, TAILLE_PAGE_MAX)))
+                .toList();
+        if (correspondances.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Acheteur> acheteurs = userRepository.findAllById(correspondances.stream()
+                        .map(AppariementService.Correspondance::getAcheteurId).toList()).stream()
+                .filter(user -> user instanceof Acheteur)
+                .map(user -> (Acheteur) user)
+                .collect(Collectors.toMap(Acheteur::getId, Function.identity()));
+
+        return correspondances.stream()
+                .filter(correspondance -> acheteurs.containsKey(correspondance.getAcheteurId()))
+                .map(correspondance -> mapToAcheteurDTO(
+                        acheteurs.get(correspondance.getAcheteurId()), correspondance.isZoneCiblee()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Offres disponibles dans un rayon autour d'un point, de la plus proche à la plus éloignée.
+     * Préfiltre indexé sur le rectangle englobant, puis distance exacte (haversine) en mémoire.
+     */
+    @Transactional(readOnly = true)
+    public List<ElementProximiteDTO<OffreResumeDTO>> offresProches(double latitude, double longitude,
+                                                                   double rayonKm, String produit, int limite) {
+        RechercheProximite.valider(latitude, longitude, rayonKm);
+
+        GeoUtil.BoiteEnglobante boite = GeoUtil.boite(latitude, longitude, rayonKm);
+        List<RechercheProximite.Voisin> voisins = RechercheProximite.classer(
+                offreMarcheRepository.findPositionsDansBoite(StatutOffreEnum.DISPONIBLE,
+                        BigDecimal.valueOf(boite.getLatitudeMin()), BigDecimal.valueOf(boite.getLatitudeMax()),
+                        BigDecimal.valueOf(boite.getLongitudeMin()), BigDecimal.valueOf(boite.getLongitudeMax()),
+                        produit != null && !produit.isBlank() ? produit : null),
+                latitude, longitude, rayonKm, RechercheProximite.limite(limite));
+        if (voisins.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, OffreResumeDTO> offres = offreMarcheRepository
+                .findResumesByIdIn(voisins.stream().map(RechercheProximite.Voisin::getId).toList()).stream()
+                .collect(Collectors.toMap(OffreResumeDTO::getId, Function.identity()));
+
+        return voisins.stream()
+                .filter(voisin -> offres.containsKey(voisin.getId()))
+                .map(voisin -> new ElementProximiteDTO<>(offres.get(voisin.getId()), voisin.getDistanceArrondie()))
+                .collect(Collectors.toList());
+    }
+
+    // Méthodes utilitaires privées
+
+    private Agriculteur getAgriculteur(Long agriculteurId) {
+        return (Agriculteur) userRepository.findById(agriculteurId)
+                .filter(user -> user instanceof Agriculteur)
+                .orElseThrow(() -> new ResourceNotFoundException("Agriculteur non trouvé"));
+    }
+
+    private OffreMarche getOffreDuVendeur(Long vendeurId, Long offreId) {
+        return offreMarcheRepository.findByIdAndVendeur(offreId, getAgriculteur(vendeurId))
+                .orElseThrow(() -> new ResourceNotFoundException("Offre non trouvée"));
+    }
+
+    private void validateExpiration(LocalDateTime dateExpiration) {
+        if (dateExpiration != null && dateExpiration.isBefore(LocalDateTime.now())) {
+            throw new ValidationException("La date d'expiration doit être dans le futur",
+                    Map.of("dateExpiration", "Date d'expiration invalide"));
+        }
+    }
+
+    private AcheteurCorrespondantDTO mapToAcheteurDTO(Acheteur acheteur, boolean zoneCiblee) {
+        return AcheteurCorrespondantDTO.builder()
+                .id(acheteur.getId())
+                .nom(acheteur.getNom())
+                .telephone(acheteur.getTelephone())
+                .entreprise(acheteur.getEntreprise())
+                .typeAchat(acheteur.getTypeAchat())
+                .commune(acheteur.getCommune())
+                .region(acheteur.getRegion())
+                .volumeMensuel(acheteur.getVolumeMensuel())
+                .prixMaximum(acheteur.getPrixMaximum())
+                .transportAssure(acheteur.getTransportAssure())
+                .zoneCiblee(zoneCiblee)
+                .build();
+    }
+
+    private OffreDTO mapToDTO(OffreMarche offre) {
+        Agriculteur vendeur = offre.getVendeur();
+        return OffreDTO.builder()
+                .id(offre.getId())
+                .produit(offre.getProduit())
+                .variete(offre.getVariete())
+                .quantite(offre.getQuantite())
+                .unite(offre.getUnite())
+                .uniteLibelle(offre.getUnite() != null ? offre.getUnite().getLibelle() : null)
+                .prixUnitaire(offre.getPrixUnitaire())
+                .prixNegociable(offre.getPrixNegociable())
+                .montantTotal(offre.getMontantTotal())
+                .commune(offre.getCommune())
+                .region(offre.getRegion())
+                .description(offre.getDescription())
+                .qualite(offre.getQualite())
+                .certification(offre.getCertification())
+                .dateRecolte(offre.getDateRecolte())
+                .dateRecoltePrevue(offre.getDateRecoltePrevue())
+                .dateExpiration(offre.getDateExpiration())
+                .statut(offre.getStatut())
+                .statutLibelle(offre.getStatut() != null ? offre.getStatut().getLibelle() : null)
+                .latitude(offre.getLatitude())
+                .longitude(offre.getLongitude())
+                .nombreVues(offre.getNombreVues())
+                .vendeurId(vendeur.getId())
+                .vendeurNom(vendeur.getNom())
+                .vendeurTelephone(vendeur.getTelephone())
+                .datePublication(offre.getDatePublication())
+                .dateModification(offre.getDateModification())
+                .build();
+    }
+}
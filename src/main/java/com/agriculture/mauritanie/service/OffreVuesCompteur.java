@@ -0,0 +1,128 @@
+package com.agriculture.mauritanie.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur des vues d'offres en écriture différée.
+ * Chaque vue incrémente un LongAdder sans verrou ; les deltas cumulés sont écrits
+ * périodiquement par un UPDATE relatif en lot, sans lecture-modification-écriture de l'entité.
+ * Le lot est écrit dans une transaction : un échec au milieu l'annule entièrement et tous les deltas
+ * sont repris au flush suivant, sans compter deux fois les lignes déjà écrites.
+ * En cas d'arrêt brutal, la perte est bornée aux vues d'un intervalle de flush.
+ */
+@Service
+@Slf4j
+public class OffreVuesCompteur {
+
+    private static final String UPDATE_SQL =
+            "UPDATE offres_marche SET nombre_vues = COALESCE(nombre_vues, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final Map<Long, LongAdder> enAttente = new ConcurrentHashMap<>();
+    private final Timer dureeFlush;
+    private final Counter vuesEcrites;
+
+    public OffreVuesCompteur(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        Gauge.builder("offres.vues.buffer", enAttente, Map::size)
+                .description("Offres ayant des vues en attente d'écriture")
+                .register(meterRegistry);
+        this.dureeFlush = Timer.builder("offres.vues.flush")
+                .description("Durée d'écriture des vues en attente")
+                .register(meterRegistry);
+        this.vuesEcrites = Counter.builder("offres.vues.ecrites")
+                .description("Vues d'offres écrites en base")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre une vue ; aucun accès base n'est fait ici
+     */
+    public void enregistrer(Long offreId) {
+        LongAdder compteur = enAttente.computeIfAbsent(offreId, id -> new LongAdder());
+        compteur.increment();
+
+        // Entrée retirée par flush entre la lecture et l'incrément : la vue serait perdue avec elle,
+        // on la reporte dans l'entrée courante (sumThenReset garantit qu'un seul des deux la récupère)
+        long orphelines;
+        while (enAttente.get(offreId) != compteur && (orphelines = compteur.sumThenReset()) > 0) {
+            compteur = enAttente.computeIfAbsent(offreId, id -> new LongAdder());
+            compteur.add(orphelines);
+        }
+    }
+
+    /**
+     * Vues enregistrées mais pas encore écrites, pour un affichage à jour
+     */
+    public long enAttente(Long offreId) {
+        LongAdder compteur = enAttente.get(offreId);
+        return compteur != null ? compteur.sum() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.offres.vues.flush-interval:5000}")
+    public void flush() {
+        if (enAttente.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> lots = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : enAttente.entrySet()) {
+            LongAdder compteur = entry.getValue();
+            long delta = compteur.sumThenReset();
+            if (delta == 0) {
+                // Offre sans vue depuis le dernier flush : on libère l'entrée,
+                // puis on récupère les incréments arrivés pendant le retrait
+                enAttente.remove(entry.getKey(), compteur);
+                delta = compteur.sumThenReset();
+            }
+            if (delta > 0) {
+                lots.add(new Object[]{delta, entry.getKey()});
+            }
+        }
+
+        if (lots.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, lots));
+            long total = lots.stream().mapToLong(ligne -> (Long) ligne[0]).sum();
+            vuesEcrites.increment(total);
+            log.debug("{} vues écrites pour {} offres", total, lots.size());
+        } catch (RuntimeException e) {
+            log.error("Échec de l'écriture des vues d'offres, nouvel essai au prochain flush: {}", e.getMessage());
+            for (Object[] ligne : lots) {
+                enAttente.computeIfAbsent((Long) ligne[1], id -> new LongAdder()).add((Long) ligne[0]);
+            }
+        } finally {
+            sample.stop(dureeFlush);
+        }
+    }
+
+    @PreDestroy
+    void flushAvantArret() {
+        log.info("Écriture des vues d'offres en attente avant arrêt ({})", enAttente.size());
+        flush();
+    }
+}
@@ -0,0 +1,179 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.parcelle.ParcelleResumeDTO;
+import com.agriculture.mauritanie.dto.parcelle.ParcelleResumeProjection;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.exception.ResourceNotFoundException;
+import com.agriculture.mauritanie.repository.ParcelleRepository;
+import com.agriculture.mauritanie.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Export en flux des parcelles d'un agriculteur (NDJSON ou CSV).
+ * Les lignes sont lues en flux (taille de lot propre à cette requête, voir
+ * app.export.parcelles.fetch-size) et écrites au fil de l'eau :
+ * la mémoire utilisée ne dépend pas du nombre de parcelles.
+ */
+@Service
+@Slf4j
+public class ParcelleExportService {
+
+    private static final int LIGNES_PAR_FLUSH = 500;
+    private static final String ENTETE_CSV = "id,nomParcelle,surfaceHectares,typeCulture,commune,statutCulture," +
+            "datePlantation,dateRecoltePrevue,irrigation,joursAvantRecolte";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final ParcelleRepository parcelleRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate lectureSeule;
+    private final ObjectWriter ligneJson;
+    private final int fetchSize;
+
+    public ParcelleExportService(ParcelleRepository parcelleRepository,
+                                 UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.export.parcelles.fetch-size:" + Integer.MIN_VALUE + "}") int fetchSize) {
+        this.parcelleRepository = parcelleRepository;
+        this.fetchSize = fetchSize;
+        this.userRepository = userRepository;
+        this.lectureSeule = new TransactionTemplate(transactionManager);
+        this.lectureSeule.setReadOnly(true);
+        // Une ligne par objet : l'indentation globale (indent-output) est désactivée ici
+        this.ligneJson = objectMapper.writerFor(ParcelleResumeDTO.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Résout le paramètre de format (insensible à la casse)
+     */
+    public static Format format(String valeur) {
+        try {
+            return Format.valueOf(valeur.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Format d'export non supporté: " + valeur + " (ndjson ou csv)");
+        }
+    }
+
+    /**
+     * Prépare l'export ; l'agriculteur est vérifié avant l'envoi de la réponse,
+     * la lecture elle-même s'exécute dans le thread d'écriture asynchrone.
+     */
+    public StreamingResponseBody exporter(Long agriculteurId, Format format) {
+        Agriculteur agriculteur = getAgriculteur(agriculteurId);
+
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            long lignes = lectureSeule.execute(status -> {
+                try (Stream<ParcelleResumeProjection> parcelles = parcelleRepository.streamResumes(agriculteur, fetchSize)) {
+                    return ecrire(parcelles.iterator(), format, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            log.info("Export {} de {} parcelles pour l'agriculteur: {}", format, lignes, agriculteurId);
+        };
+    }
+
+    // Méthodes utilitaires privées
+
+    private long ecrire(Iterator<ParcelleResumeProjection> parcelles, Format format, Writer writer) throws IOException {
+        if (format == Format.CSV) {
+            writer.write(ENTETE_CSV);
+            writer.write('\n');
+        }
+
+        long lignes = 0;
+        while (parcelles.hasNext()) {
+            ParcelleResumeDTO parcelle = parcelles.next().versResumeDTO();
+            if (format == Format.CSV) {
+                ecrireCsv(parcelle, writer);
+            } else {
+                ligneJson.writeValue(writer, parcelle);
+                writer.write('\n');
+            }
+
+            if (++lignes % LIGNES_PAR_FLUSH == 0) {
+                writer.flush();
+            }
+        }
+        return lignes;
+    }
+
+    private void ecrireCsv(ParcelleResumeDTO parcelle, Writer writer) throws IOException {
+        writer.write(String.join(",",
+                valeur(parcelle.getId()),
+                echapper(parcelle.getNomParcelle()),
+                valeur(parcelle.getSurfaceHectares() != null ? parcelle.getSurfaceHectares().toPlainString() : null),
+                echapper(parcelle.getTypeCulture()),
+                echapper(parcelle.getCommune()),
+                valeur(parcelle.getStatutCulture()),
+                valeur(parcelle.getDatePlantation()),
+                valeur(parcelle.getDateRecoltePrevue()),
+                valeur(parcelle.getIrrigation()),
+                valeur(parcelle.getJoursAvantRecolte())));
+        writer.write('\n');
+    }
+
+    private static String valeur(Object valeur) {
+        return valeur != null ? valeur.toString() : "";
+    }
+
+    private static String echapper(String valeur) {
+        if (valeur == null) {
+            return "";
+        }
+        if (valeur.indexOf(',') < 0 && valeur.indexOf('"') < 0 && valeur.indexOf('\n') < 0 && valeur.indexOf('\r') < 0) {
+            return valeur;
+        }
+        return '"' + valeur.replace("\"", "\"\"") + '"';
+    }
+
+    private Agriculteur getAgriculteur(Long agriculteurId) {
+        return (Agriculteur) userRepository.findById(agriculteurId)
+                .filter(user -> user instanceof Agriculteur)
+                .orElseThrow(() -> new ResourceNotFoundException("Agriculteur non trouvé"));
+    }
+}
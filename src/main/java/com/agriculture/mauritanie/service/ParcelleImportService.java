@@ -0,0 +1,306 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.config.CacheConfig;
+import com.agriculture.mauritanie.dto.parcelle.CreateParcelleRequest;
+import com.agriculture.mauritanie.dto.parcelle.ImportParcellesResultatDTO;
+import com.agriculture.mauritanie.dto.parcelle.ImportParcellesResultatDTO.ErreurLigneDTO;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.StatutCultureEnum;
+import com.agriculture.mauritanie.exception.ResourceNotFoundException;
+import com.agriculture.mauritanie.exception.ValidationException;
+import com.agriculture.mauritanie.repository.ParcelleRepository;
+import com.agriculture.mauritanie.repository.UserRepository;
+import com.agriculture.mauritanie.util.LecteurCsv;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Import en masse de parcelles (CSV ou JSON).
+ * Les lignes sont validées en mémoire, les noms dédoublonnés contre un seul ensemble préchargé,
+ * puis les lignes valides sont insérées par lots JDBC (l'identité IDENTITY empêche le batching Hibernate).
+ */
+@Service
+@Slf4j
+public class ParcelleImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO parcelles (nom_parcelle, surface_hectares, type_culture, " +
+            "commune, region, latitude, longitude, date_plantation, date_recolte_prevue, statut_culture, irrigation, " +
+            "notes, agriculteur_id, date_creation, date_modification) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int TAILLE_LOT = 500;
+
+    private final ParcelleRepository parcelleRepository;
+    private final UserRepository userRepository;
+    private final ParcelleStatsService parcelleStatsService;
+    private final ParcelleRechercheService parcelleRechercheService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final Validator validator;
+    private final int maxLignes;
+
+    public ParcelleImportService(ParcelleRepository parcelleRepository,
+                                 UserRepository userRepository,
+                                 ParcelleStatsService parcelleStatsService,
+                                 ParcelleRechercheService parcelleRechercheService,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 Validator validator,
+                                 @Value("${app.import.parcelles.max-lignes:10000}") int maxLignes) {
+        this.parcelleRepository = parcelleRepository;
+        this.userRepository = userRepository;
+        this.parcelleStatsService = parcelleStatsService;
+        this.parcelleRechercheService = parcelleRechercheService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.maxLignes = maxLignes;
+    }
+
+    /**
+     * Importer des parcelles reçues en JSON
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DASHBOARD, key = "#agriculteurId"),
+            @CacheEvict(cacheNames = CacheConfig.STATISTIQUES, key = "#agriculteurId")
+    })
+    public ImportParcellesResultatDTO importer(Long agriculteurId, List<CreateParcelleRequest> requetes) {
+        List<Ligne> lignes = new ArrayList<>(requetes.size());
+        for (int i = 0; i < requetes.size(); i++) {
+            lignes.add(new Ligne(i + 1, requetes.get(i)));
+        }
+        return importerLignes(agriculteurId, lignes);
+    }
+
+    /**
+     * Importer des parcelles depuis un fichier CSV avec ligne d'en-tête
+     * (mêmes noms de colonnes que les champs de CreateParcelleRequest)
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DASHBOARD, key = "#agriculteurId"),
+            @CacheEvict(cacheNames = CacheConfig.STATISTIQUES, key = "#agriculteurId")
+    })
+    public ImportParcellesResultatDTO importerCsv(Long agriculteurId, Reader source) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        reader.mark(4096);
+        String premiereLigne = reader.readLine();
+        if (premiereLigne == null) {
+            throw new ValidationException("Fichier CSV vide", Map.of("fichier", "Aucune ligne d'en-tête"));
+        }
+        reader.reset();
+
+        char separateur = premiereLigne.indexOf(';') >= 0 && premiereLigne.indexOf(',') < 0 ? ';' : ',';
+        LecteurCsv csv = new LecteurCsv(reader, separateur);
+
+        Map<String, Integer> colonnes = new HashMap<>();
+        List<String> entete = csv.lire();
+        for (int i = 0; i < entete.size(); i++) {
+            colonnes.put(entete.get(i).trim().replace("\uFEFF", ""), i);
+        }
+
+        List<Ligne> lignes = new ArrayList<>();
+        int numero = 1;
+        List<String> champs;
+        while ((champs = csv.lire()) != null) {
+            numero++;
+            if (champs.size() == 1 && champs.get(0).isBlank()) {
+                continue;
+            }
+            lignes.add(lireLigneCsv(numero, champs, colonnes));
+        }
+        return importerLignes(agriculteurId, lignes);
+    }
+
+    // Méthodes utilitaires privées
+
+    private ImportParcellesResultatDTO importerLignes(Long agriculteurId, List<Ligne> lignes) {
+        if (lignes.size() > maxLignes) {
+            throw new ValidationException("Import limité à " + maxLignes + " lignes",
+                    Map.of("lignes", lignes.size() + " lignes reçues"));
+        }
+
+        Agriculteur agriculteur = getAgriculteur(agriculteurId);
+        log.info("Import de {} parcelles pour l'agriculteur: {}", lignes.size(), agriculteurId);
+
+        // Un seul aller-retour pour tous les noms existants de l'agriculteur
+        Set<String> nomsExistants = new HashSet<>(parcelleRepository.findNomsNormalisesByAgriculteur(agriculteur));
+
+        List<CreateParcelleRequest> valides = new ArrayList<>();
+        List<ErreurLigneDTO> erreurs = new ArrayList<>();
+        for (Ligne ligne : lignes) {
+            List<String> messages = new ArrayList<>(ligne.erreurs);
+            CreateParcelleRequest requete = ligne.requete;
+
+            if (requete == null) {
+                messages.add("Ligne vide");
+            } else if (messages.isEmpty()) {
+                for (ConstraintViolation<CreateParcelleRequest> violation : validator.validate(requete)) {
+                    messages.add(violation.getMessage());
+                }
+                if (requete.getDatePlantation() != null && requete.getDateRecoltePrevue() != null
+                        && requete.getDateRecoltePrevue().isBefore(requete.getDatePlantation())) {
+                    messages.add("La date de récolte prévue ne peut pas être antérieure à la date de plantation");
+                }
+                if (requete.getNomParcelle() != null
+                        && nomsExistants.contains(requete.getNomParcelle().toLowerCase(Locale.ROOT))) {
+                    messages.add("Une parcelle avec ce nom existe déjà");
+                }
+            }
+
+            if (messages.isEmpty()) {
+                // Le nom n'est réservé qu'une fois la ligne acceptée : une ligne rejetée ne bloque pas la suivante
+                nomsExistants.add(requete.getNomParcelle().toLowerCase(Locale.ROOT));
+                valides.add(requete);
+            } else {
+                erreurs.add(ErreurLigneDTO.builder()
+                        .ligne(ligne.numero)
+                        .nomParcelle(requete != null ? requete.getNomParcelle() : null)
+                        .messages(messages)
+                        .build());
+            }
+        }
+
+        if (!valides.isEmpty()) {
+            // Agrégats et index textuel recalculés une fois, dans la transaction de l'insertion :
+            // un échec annule l'import entier au lieu de laisser des parcelles absentes des statistiques
+            transaction.executeWithoutResult(status -> {
+                inserer(agriculteurId, valides);
+                parcelleStatsService.reconstruireDansLaTransaction(agriculteur);
+                parcelleRechercheService.reindexer(agriculteur);
+            });
+        }
+
+        log.info("Import terminé pour l'agriculteur {}: {} importées, {} rejetées",
+                agriculteurId, valides.size(), erreurs.size());
+
+        return ImportParcellesResultatDTO.builder()
+                .totalLignes(lignes.size())
+                .importees(valides.size())
+                .rejetees(erreurs.size())
+                .erreurs(erreurs)
+                .build();
+    }
+
+    private void inserer(Long agriculteurId, List<CreateParcelleRequest> parcelles) {
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, parcelles, TAILLE_LOT, (ps, p) -> {
+            StatutCultureEnum statut = p.getStatutCulture() != null ? p.getStatutCulture() : StatutCultureEnum.PLANTE;
+            ps.setString(1, p.getNomParcelle());
+            ps.setBigDecimal(2, p.getSurfaceHectares());
+            ps.setString(3, p.getTypeCulture());
+            ps.setString(4, p.getCommune());
+            ps.setString(5, p.getRegion());
+            ps.setBigDecimal(6, p.getLatitude());
+            ps.setBigDecimal(7, p.getLongitude());
+            ps.setDate(8, p.getDatePlantation() != null ? Date.valueOf(p.getDatePlantation()) : null);
+            ps.setDate(9, p.getDateRecoltePrevue() != null ? Date.valueOf(p.getDateRecoltePrevue()) : null);
+            ps.setString(10, statut.name());
+            ps.setBoolean(11, Boolean.TRUE.equals(p.getIrrigation()));
+            ps.setString(12, p.getNotes());
+            ps.setLong(13, agriculteurId);
+            ps.setTimestamp(14, maintenant);
+            ps.setTimestamp(15, maintenant);
+        });
+    }
+
+    private Ligne lireLigneCsv(int numero, List<String> champs, Map<String, Integer> colonnes) {
+        CreateParcelleRequest requete = new CreateParcelleRequest();
+        Ligne ligne = new Ligne(numero, requete);
+
+        requete.setNomParcelle(champ(champs, colonnes, "nomParcelle"));
+        requete.setTypeCulture(champ(champs, colonnes, "typeCulture"));
+        requete.setCommune(champ(champs, colonnes, "commune"));
+        requete.setRegion(champ(champs, colonnes, "region"));
+        requete.setNotes(champ(champs, colonnes, "notes"));
+        requete.setSurfaceHectares(convertir(ligne, champs, colonnes, "surfaceHectares", BigDecimal::new));
+        requete.setLatitude(convertir(ligne, champs, colonnes, "latitude", BigDecimal::new));
+        requete.setLongitude(convertir(ligne, champs, colonnes, "longitude", BigDecimal::new));
+        requete.setDatePlantation(convertir(ligne, champs, colonnes, "datePlantation", LocalDate::parse));
+        requete.setDateRecoltePrevue(convertir(ligne, champs, colonnes, "dateRecoltePrevue", LocalDate::parse));
+
+        StatutCultureEnum statut = convertir(ligne, champs, colonnes, "statutCulture",
+                v -> StatutCultureEnum.valueOf(v.toUpperCase(Locale.ROOT)));
+        if (statut != null) {
+            requete.setStatutCulture(statut);
+        }
+        Boolean irrigation = convertir(ligne, champs, colonnes, "irrigation", ParcelleImportService::lireBooleen);
+        if (irrigation != null) {
+            requete.setIrrigation(irrigation);
+        }
+        return ligne;
+    }
+
+    private static String champ(List<String> champs, Map<String, Integer> colonnes, String nom) {
+        Integer index = colonnes.get(nom);
+        if (index == null || index >= champs.size()) {
+            return null;
+        }
+        String valeur = champs.get(index).trim();
+        return valeur.isEmpty() ? null : valeur;
+    }
+
+    private static <T> T convertir(Ligne ligne, List<String> champs, Map<String, Integer> colonnes, String nom,
+                                   Function<String, T> conversion) {
+        String valeur = champ(champs, colonnes, nom);
+        if (valeur == null) {
+            return null;
+        }
+        try {
+            return conversion.apply(valeur);
+        } catch (RuntimeException e) {
+            ligne.erreurs.add("Valeur invalide pour " + nom + ": " + valeur);
+            return null;
+        }
+    }
+
+    private static Boolean lireBooleen(String valeur) {
+        return switch (valeur.toLowerCase(Locale.ROOT)) {
+            case "true", "oui", "1", "vrai" -> true;
+            case "false", "non", "0", "faux" -> false;
+            default -> throw new IllegalArgumentException(valeur);
+        };
+    }
+
+    private Agriculteur getAgriculteur(Long agriculteurId) {
+        return (Agriculteur) userRepository.findById(agriculteurId)
+                .filter(user -> user instanceof Agriculteur)
+                .orElseThrow(() -> new ResourceNotFoundException("Agriculteur non trouvé"));
+    }
+
+    private static class Ligne {
+        private final int numero;
+        private final CreateParcelleRequest requete;
+        private final List<String> erreurs = new ArrayList<>();
+
+        private Ligne(int numero, CreateParcelleRequest requete) {
+            this.numero = numero;
+            this.requete = requete;
+        }
+    }
+}
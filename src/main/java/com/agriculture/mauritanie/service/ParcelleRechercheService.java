@@ -0,0 +1,177 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.Parcelle;
+import com.agriculture.mauritanie.entity.ParcelleTerme;
+import com.agriculture.mauritanie.repository.ParcelleIndexationRepository;
+import com.agriculture.mauritanie.repository.ParcelleRepository;
+import com.agriculture.mauritanie.repository.ParcelleTermeRepository;
+import com.agriculture.mauritanie.util.NormalisationTexte;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recherche textuelle des parcelles par index inversé (table parcelle_termes).
+ * Chaque mot de la requête doit correspondre (en préfixe) à un terme de la parcelle ;
+ * les résultats sont classés par la somme des poids des champs touchés.
+ * Un agriculteur n'est indexé en une fois qu'à sa première écriture ou recherche, sous le verrou
+ * de sa ligne parcelle_indexations ; l'index est ensuite maintenu parcelle par parcelle.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParcelleRechercheService {
+
+    static final int POIDS_NOM = 3;
+    static final int POIDS_TYPE_CULTURE = 2;
+    static final int POIDS_NOTES = 1;
+
+    private final ParcelleTermeRepository parcelleTermeRepository;
+    private final ParcelleRepository parcelleRepository;
+    private final ParcelleIndexationRepository parcelleIndexationRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * (Ré)indexer une parcelle après création ou modification ;
+     * toutes les parcelles si l'agriculteur n'a pas encore été indexé
+     */
+    @Transactional
+    public void indexer(Agriculteur agriculteur, Parcelle parcelle) {
+        if (!verrouiller(agriculteur.getId())) {
+            indexerTout(agriculteur);
+            return;
+        }
+        parcelleTermeRepository.deleteByParcelleId(parcelle.getId());
+        parcelleTermeRepository.saveAll(termes(agriculteur.getId(), parcelle));
+    }
+
+    @Transactional
+    public void supprimer(Long parcelleId) {
+        parcelleTermeRepository.deleteByParcelleId(parcelleId);
+    }
+
+    /**
+     * Reconstruire l'index de toutes les parcelles d'un agriculteur
+     */
+    @Transactional
+    public void reindexer(Agriculteur agriculteur) {
+        verrouiller(agriculteur.getId());
+        indexerTout(agriculteur);
+    }
+
+    /**
+     * Indexer un agriculteur qui ne l'a jamais été (parcelles antérieures à l'index), dans sa propre
+     * transaction. À appeler avant d'ouvrir la lecture de la recherche, pour qu'elle voie l'index.
+     */
+    public void preparer(Agriculteur agriculteur) {
+        if (parcelleIndexationRepository.existsByAgriculteurIdAndCompletTrue(agriculteur.getId())) {
+            return;
+        }
+        nouvelleTransaction().executeWithoutResult(status -> {
+            // Une recherche concurrente a pu indexer pendant l'attente du verrou
+            if (!verrouiller(agriculteur.getId())) {
+                indexerTout(agriculteur);
+            }
+        });
+    }
+
+    /**
+     * Identifiants des parcelles correspondant à la requête, du plus pertinent au moins pertinent
+     */
+    @Transactional(readOnly = true)
+    public List<Long> rechercher(Agriculteur agriculteur, String requete) {
+        Set<String> mots = new LinkedHashSet<>(NormalisationTexte.termes(requete));
+        if (mots.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Long> scores = null;
+        for (String mot : mots) {
+            Map<Long, Long> scoresMot = new HashMap<>();
+            for (Object[] row : parcelleTermeRepository.scorerParPrefixe(agriculteur.getId(), mot)) {
+                scoresMot.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+
+            if (scores == null) {
+                scores = scoresMot;
+            } else {
+                // Intersection : toutes les parcelles doivent contenir chaque mot
+                scores.keySet().retainAll(scoresMot.keySet());
+                scores.replaceAll((id, score) -> score + scoresMot.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Méthodes utilitaires privées
+
+    /**
+     * Prendre le verrou d'indexation de l'agriculteur ; vrai si son index est déjà complet
+     */
+    private boolean verrouiller(Long agriculteurId) {
+        parcelleIndexationRepository.verrouiller(agriculteurId);
+        return Boolean.TRUE.equals(parcelleIndexationRepository.lireCompletVerrouille(agriculteurId));
+    }
+
+    /**
+     * Remplacer tous les termes de l'agriculteur (verrou d'indexation déjà pris)
+     */
+    private void indexerTout(Agriculteur agriculteur) {
+        log.info("Indexation textuelle des parcelles de l'agriculteur: {}", agriculteur.getId());
+        parcelleTermeRepository.deleteByAgriculteurId(agriculteur.getId());
+
+        List<ParcelleTerme> termes = new ArrayList<>();
+        for (Parcelle parcelle : parcelleRepository.findByAgriculteurOrderByDateCreationDesc(agriculteur)) {
+            termes.addAll(termes(agriculteur.getId(), parcelle));
+        }
+        parcelleTermeRepository.saveAll(termes);
+        parcelleIndexationRepository.marquerComplet(agriculteur.getId(), LocalDateTime.now());
+    }
+
+    private TransactionTemplate nouvelleTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private List<ParcelleTerme> termes(Long agriculteurId, Parcelle parcelle) {
+        Map<String, Integer> poids = new LinkedHashMap<>();
+        ajouter(poids, parcelle.getNomParcelle(), POIDS_NOM);
+        ajouter(poids, parcelle.getTypeCulture(), POIDS_TYPE_CULTURE);
+        ajouter(poids, parcelle.getNotes(), POIDS_NOTES);
+
+        List<ParcelleTerme> termes = new ArrayList<>(poids.size());
+        poids.forEach((terme, valeur) ->
+                termes.add(new ParcelleTerme(null, parcelle.getId(), agriculteurId, terme, valeur)));
+        return termes;
+    }
+
+    private void ajouter(Map<String, Integer> poids, String texte, int valeur) {
+        for (String terme : NormalisationTexte.termes(texte)) {
+            poids.merge(terme, valeur, Integer::sum);
+        }
+    }
+}
@@ -1,28 +1,41 @@
 // ParcelleService.java
 package com.agriculture.mauritanie.service;
 
+import com.agriculture.mauritanie.config.CacheConfig;
+import com.agriculture.mauritanie.config.LecturePrimaire;
+import com.agriculture.mauritanie.dto.geo.ElementProximiteDTO;
 import com.agriculture.mauritanie.dto.parcelle.*;
 import com.agriculture.mauritanie.entity.Parcelle;
 import com.agriculture.mauritanie.entity.Agriculteur;
 import com.agriculture.mauritanie.entity.StatutCultureEnum;
 import com.agriculture.mauritanie.repository.ParcelleRepository;
+import com.agriculture.mauritanie.repository.ParcelleSpecifications;
 import com.agriculture.mauritanie.repository.UserRepository;
 import com.agriculture.mauritanie.exception.ResourceNotFoundException;
 import com.agriculture.mauritanie.exception.DuplicateResourceException;
 import com.agriculture.mauritanie.exception.ValidationException;
+import com.agriculture.mauritanie.util.GeoUtil;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,13 +43,24 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ParcelleService {
 
+    private static final int TAILLE_PAGE_MAX = 100;
+    private static final List<String> CHAMPS_TRIABLES = List.of(
+            "dateCreation", "nomParcelle", "surfaceHectares", "datePlantation", "dateRecoltePrevue");
+
     private final ParcelleRepository parcelleRepository;
     private final UserRepository userRepository;
+    private final ParcelleStatsService parcelleStatsService;
+    private final ParcelleRechercheService parcelleRechercheService;
+    private final PlatformTransactionManager transactionManager;
 
     /**
      * Créer une nouvelle parcelle
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DASHBOARD, key = "#agriculteurId"),
+            @CacheEvict(cacheNames = CacheConfig.STATISTIQUES, key = "#agriculteurId")
+    })
     public ParcelleDTO creerParcelle(Long agriculteurId, CreateParcelleRequest request) {
         log.info("Création d'une nouvelle parcelle pour l'agriculteur: {}", agriculteurId);
 
@@ -55,6 +79,8 @@ public class ParcelleService {
         parcelle.setAgriculteur(agriculteur);
 
         Parcelle savedParcelle = parcelleRepository.save(parcelle);
+        parcelleStatsService.parcelleAjoutee(agriculteur, savedParcelle);
+        parcelleRechercheService.indexer(agriculteur, savedParcelle);
         log.info("Parcelle créée avec succès: {}", savedParcelle.getId());
 
         return mapToDTO(savedParcelle);
@@ -63,31 +89,65 @@ public class ParcelleService {
     /**
      * Obtenir toutes les parcelles d'un agriculteur
      */
+    @Transactional(readOnly = true)
     public List<ParcelleResumeDTO> getMesParcelles(Long agriculteurId) {
         log.info("Récupération des parcelles pour l'agriculteur: {}", agriculteurId);
 
         Agriculteur agriculteur = getAgriculteur(agriculteurId);
-        List<Parcelle> parcelles = parcelleRepository.findByAgriculteurOrderByDateCreationDesc(agriculteur);
 
-        return parcelles.stream()
-                .map(this::mapToResumeDTO)
+        return parcelleRepository.findResumesByAgriculteur(agriculteur).stream()
+                .map(ParcelleResumeProjection::versResumeDTO)
                 .collect(Collectors.toList());
     }
 
     /**
      * Obtenir les parcelles avec pagination
      */
+    @Transactional(readOnly = true)
     public Page<ParcelleResumeDTO> getMesParcellesPaginated(Long agriculteurId, int page, int size) {
         Agriculteur agriculteur = getAgriculteur(agriculteurId);
         Pageable pageable = PageRequest.of(page, size);
 
-        return parcelleRepository.findByAgriculteur(agriculteur, pageable)
-                .map(this::mapToResumeDTO);
+        return parcelleRepository.findResumesByAgriculteur(agriculteur, pageable)
+                .map(ParcelleResumeProjection::versResumeDTO);
+    }
+
+    /**
+     * Obtenir les parcelles par curseur : coût constant quelle que soit la profondeur
+     */
+    @Transactional(readOnly = true)
+    public ParcellePageCurseurDTO getMesParcellesParCurseur(Long agriculteurId, String curseur, int size) {
+        Agriculteur agriculteur = getAgriculteur(agriculteurId);
+        int taille = Math.min(Math.max(size, 1), TAILLE_PAGE_MAX);
+        // Une ligne de plus pour savoir s'il existe une page suivante, sans COUNT
+        Pageable limite = PageRequest.of(0, taille + 1);
+
+        List<ParcelleResumeProjection> parcelles;
+        if (curseur == null || curseur.isBlank()) {
+            parcelles = parcelleRepository.findPremierePageByAgriculteur(agriculteur, limite);
+        } else {
+            CurseurParcelle position = CurseurParcelle.decoder(curseur);
+            parcelles = parcelleRepository.findPageSuivanteByAgriculteur(
+                    agriculteur, position.getDateCreation(), position.getId(), limite);
+        }
+
+        boolean aSuivant = parcelles.size() > taille;
+        if (aSuivant) {
+            parcelles = parcelles.subList(0, taille);
+        }
+
+        return ParcellePageCurseurDTO.builder()
+                .parcelles(parcelles.stream().map(ParcelleResumeProjection::versResumeDTO).collect(Collectors.toList()))
+                .curseurSuivant(aSuivant ? CurseurParcelle.encoder(parcelles.get(parcelles.size() - 1)) : null)
+                .aSuivant(aSuivant)
+                .taille(parcelles.size())
+                .build();
     }
 
     /**
      * Obtenir une parcelle par ID
      */
+    @Transactional(readOnly = true)
     public ParcelleDTO getParcelle(Long agriculteurId, Long parcelleId) {
         log.info("Récupération de la parcelle {} pour l'agriculteur: {}", parcelleId, agriculteurId);
 
@@ -102,6 +162,10 @@ public class ParcelleService {
      * Modifier une parcelle
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DASHBOARD, key = "#agriculteurId"),
+            @CacheEvict(cacheNames = CacheConfig.STATISTIQUES, key = "#agriculteurId")
+    })
     public ParcelleDTO modifierParcelle(Long agriculteurId, Long parcelleId, UpdateParcelleRequest request) {
         log.info("Modification de la parcelle {} pour l'agriculteur: {}", parcelleId, agriculteurId);
 
@@ -119,8 +183,11 @@ public class ParcelleService {
         // Validation des dates
         validateDates(request.getDatePlantation(), request.getDateRecoltePrevue());
 
+        ParcelleStatsService.Empreinte avant = parcelleStatsService.empreinte(parcelle);
         mapToEntity(parcelle, request);
         Parcelle savedParcelle = parcelleRepository.save(parcelle);
+        parcelleStatsService.parcelleModifiee(agriculteur, avant, savedParcelle);
+        parcelleRechercheService.indexer(agriculteur, savedParcelle);
 
         log.info("Parcelle modifiée avec succès: {}", savedParcelle.getId());
         return mapToDTO(savedParcelle);
@@ -130,6 +197,10 @@ public class ParcelleService {
      * Supprimer une parcelle
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DASHBOARD, key = "#agriculteurId"),
+            @CacheEvict(cacheNames = CacheConfig.STATISTIQUES, key = "#agriculteurId")
+    })
     public void supprimerParcelle(Long agriculteurId, Long parcelleId) {
         log.info("Suppression de la parcelle {} pour l'agriculteur: {}", parcelleId, agriculteurId);
 
@@ -137,44 +208,110 @@ public class ParcelleService {
         Parcelle parcelle = parcelleRepository.findByIdAndAgriculteur(parcelleId, agriculteur)
                 .orElseThrow(() -> new ResourceNotFoundException("Parcelle non trouvée"));
 
+        ParcelleStatsService.Empreinte avant = parcelleStatsService.empreinte(parcelle);
         parcelleRepository.delete(parcelle);
+        parcelleStatsService.parcelleSupprimee(agriculteur, avant);
+        parcelleRechercheService.supprimer(parcelleId);
         log.info("Parcelle supprimée avec succès: {}", parcelleId);
     }
 
     /**
-     * Rechercher des parcelles par critères
+     * Rechercher des parcelles par critères (tous les critères fournis sont combinés)
      */
+    @Transactional(readOnly = true)
     public List<ParcelleResumeDTO> rechercherParcelles(Long agriculteurId, String typeCulture,
                                                        StatutCultureEnum statut, String region, String commune) {
         Agriculteur agriculteur = getAgriculteur(agriculteurId);
-        List<Parcelle> parcelles;
-
-        if (typeCulture != null && !typeCulture.isEmpty()) {
-            parcelles = parcelleRepository.findByAgriculteurAndTypeCulture(agriculteur, typeCulture);
-        } else if (statut != null) {
-            parcelles = parcelleRepository.findByAgriculteurAndStatutCulture(agriculteur, statut);
-        } else if (region != null && !region.isEmpty()) {
-            parcelles = parcelleRepository.findByAgriculteurAndRegion(agriculteur, region);
-        } else if (commune != null && !commune.isEmpty()) {
-            parcelles = parcelleRepository.findByAgriculteurAndCommune(agriculteur, commune);
-        } else {
-            parcelles = parcelleRepository.findByAgriculteurOrderByDateCreationDesc(agriculteur);
-        }
 
-        return parcelles.stream()
-                .map(this::mapToResumeDTO)
+        ParcelleFiltreRequest filtre = new ParcelleFiltreRequest();
+        filtre.setTypeCulture(typeCulture);
+        filtre.setStatut(statut);
+        filtre.setRegion(region);
+        filtre.setCommune(commune);
+
+        return parcelleRepository.findResumes(ParcelleSpecifications.filtrer(agriculteur, filtre),
+                        Sort.by(Sort.Direction.DESC, "dateCreation", "id")).stream()
+                .map(ParcelleResumeProjection::versResumeDTO)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Recherche textuelle
+     * Filtrer les parcelles sur une combinaison quelconque de critères, avec pagination et tri
+     */
+    @Transactional(readOnly = true)
+    public Page<ParcelleResumeDTO> filtrerParcelles(Long agriculteurId, ParcelleFiltreRequest filtre,
+                                                    int page, int size, String tri, Sort.Direction direction) {
+        if (!CHAMPS_TRIABLES.contains(tri)) {
+            throw new ValidationException("Critère de tri non supporté: " + tri,
+                    Map.of("tri", "Valeurs possibles: " + String.join(", ", CHAMPS_TRIABLES)));
+        }
+
+        Agriculteur agriculteur = getAgriculteur(agriculteurId);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), TAILLE_PAGE_MAX),
+                Sort.by(direction, tri).and(Sort.by(direction, "id")));
+
+        return parcelleRepository.findResumes(ParcelleSpecifications.filtrer(agriculteur, filtre), pageable)
+                .map(ParcelleResumeProjection::versResumeDTO);
+    }
+
+    /**
+     * Recherche textuelle (insensible aux accents et diacritiques), résultats classés par pertinence.
+     * Pas de transaction englobante : l'index construit (et validé) par preparer doit être visible
+     * des lectures qui suivent. Elles partagent ensuite une transaction en lecture seule (flush MANUAL),
+     * sur le primaire : la réplique peut ne pas encore avoir reçu l'index.
      */
     public List<ParcelleResumeDTO> rechercherParTexte(Long agriculteurId, String searchTerm) {
         Agriculteur agriculteur = getAgriculteur(agriculteurId);
-        List<Parcelle> parcelles = parcelleRepository.searchByAgriculteurAndTerm(agriculteur, searchTerm);
+        parcelleRechercheService.preparer(agriculteur);
+
+        TransactionTemplate lectureSeule = new TransactionTemplate(transactionManager);
+        lectureSeule.setReadOnly(true);
+        return LecturePrimaire.executer(() -> lectureSeule.execute(status -> {
+            List<Long> ids = parcelleRechercheService.rechercher(agriculteur, searchTerm);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
 
-        return parcelles.stream()
-                .map(this::mapToResumeDTO)
+            Map<Long, ParcelleResumeProjection> parcelles = parcelleRepository
+                    .findResumesByAgriculteurAndIdIn(agriculteur, ids).stream()
+                    .collect(Collectors.toMap(ParcelleResumeProjection::getId, Function.identity()));
+
+            return ids.stream()
+                    .map(parcelles::get)
+                    .filter(Objects::nonNull)
+                    .map(ParcelleResumeProjection::versResumeDTO)
+                    .collect(Collectors.toList());
+        }));
+    }
+
+    /**
+     * Parcelles de l'agriculteur dans un rayon autour d'un point, de la plus proche à la plus éloignée
+     */
+    @Transactional(readOnly = true)
+    public List<ElementProximiteDTO<ParcelleResumeDTO>> parcellesProches(Long agriculteurId, double latitude,
+                                                                         double longitude, double rayonKm, int limite) {
+        RechercheProximite.valider(latitude, longitude, rayonKm);
+        Agriculteur agriculteur = getAgriculteur(agriculteurId);
+
+        GeoUtil.BoiteEnglobante boite = GeoUtil.boite(latitude, longitude, rayonKm);
+        List<RechercheProximite.Voisin> voisins = RechercheProximite.classer(
+                parcelleRepository.findPositionsDansBoite(agriculteur,
+                        BigDecimal.valueOf(boite.getLatitudeMin()), BigDecimal.valueOf(boite.getLatitudeMax()),
+                        BigDecimal.valueOf(boite.getLongitudeMin()), BigDecimal.valueOf(boite.getLongitudeMax())),
+                latitude, longitude, rayonKm, RechercheProximite.limite(limite));
+        if (voisins.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ParcelleResumeProjection> parcelles = parcelleRepository
+                .findResumesByAgriculteurAndIdIn(agriculteur,
+                        voisins.stream().map(RechercheProximite.Voisin::getId).toList()).stream()
+                .collect(Collectors.toMap(ParcelleResumeProjection::getId, Function.identity()));
+
+        return voisins.stream()
+                .filter(voisin -> parcelles.containsKey(voisin.getId()))
+                .map(voisin -> new ElementProximiteDTO<>(
+                        parcelles.get(voisin.getId()).versResumeDTO(), voisin.getDistanceArrondie()))
                 .collect(Collectors.toList());
     }
 
@@ -182,6 +319,10 @@ public class ParcelleService {
      * Mettre à jour le statut d'une culture
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DASHBOARD, key = "#agriculteurId"),
+            @CacheEvict(cacheNames = CacheConfig.STATISTIQUES, key = "#agriculteurId")
+    })
     public ParcelleDTO mettreAJourStatut(Long agriculteurId, Long parcelleId, StatutCultureEnum nouveauStatut) {
         log.info("Mise à jour du statut de la parcelle {} vers {}", parcelleId, nouveauStatut);
 
@@ -189,8 +330,10 @@ public class ParcelleService {
         Parcelle parcelle = parcelleRepository.findByIdAndAgriculteur(parcelleId, agriculteur)
                 .orElseThrow(() -> new ResourceNotFoundException("Parcelle non trouvée"));
 
+        ParcelleStatsService.Empreinte avant = parcelleStatsService.empreinte(parcelle);
         parcelle.setStatutCulture(nouveauStatut);
         Parcelle savedParcelle = parcelleRepository.save(parcelle);
+        parcelleStatsService.parcelleModifiee(agriculteur, avant, savedParcelle);
 
         return mapToDTO(savedParcelle);
     }
@@ -270,22 +413,6 @@ public class ParcelleService {
                 .build();
     }
 
-    private ParcelleResumeDTO mapToResumeDTO(Parcelle parcelle) {
-        return ParcelleResumeDTO.builder()
-                .id(parcelle.getId())
-                .nomParcelle(parcelle.getNomParcelle())
-                .surfaceHectares(parcelle.getSurfaceHectares())
-                .typeCulture(parcelle.getTypeCulture())
-                .commune(parcelle.getCommune())
-                .statutCulture(parcelle.getStatutCulture())
-                .statutCultureLibelle(parcelle.getStatutCulture().getLibelle())
-                .datePlantation(parcelle.getDatePlantation())
-                .dateRecoltePrevue(parcelle.getDateRecoltePrevue())
-                .irrigation(parcelle.getIrrigation())
-                .joursAvantRecolte(calculateJoursAvantRecolte(parcelle.getDateRecoltePrevue()))
-                .build();
-    }
-
     private Integer calculateJoursAvantRecolte(LocalDate dateRecoltePrevue) {
         if (dateRecoltePrevue == null) return null;
 
@@ -0,0 +1,363 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.dashboard.CoherenceStatsDTO;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.DimensionStatEnum;
+import com.agriculture.mauritanie.entity.Parcelle;
+import com.agriculture.mauritanie.entity.ParcelleStat;
+import com.agriculture.mauritanie.entity.ParcelleStatId;
+import com.agriculture.mauritanie.entity.StatutCultureEnum;
+import com.agriculture.mauritanie.exception.ResourceNotFoundException;
+import com.agriculture.mauritanie.repository.ParcelleRepository;
+import com.agriculture.mauritanie.repository.ParcelleStatRepository;
+import com.agriculture.mauritanie.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintien de la table parcelle_stats.
+ * Les écritures de ParcelleService appliquent des deltas dans la même transaction
+ * que la parcelle ; la lecture d'un agriculteur est un parcours du préfixe de clé primaire.
+ * La ligne TOTAL d'un agriculteur sert de verrou : deltas et reconstructions la prennent en
+ * premier, et son absence signale des statistiques jamais initialisées.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParcelleStatsService {
+
+    static final String CLE_TOTAL = "*";
+
+    // Nombre posé sur une ligne TOTAL créée par un delta : statistiques jamais initialisées
+    private static final long TOTAL_A_INITIALISER = -1L;
+
+    private final ParcelleStatRepository parcelleStatRepository;
+    private final ParcelleRepository parcelleRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Lire les statistiques matérialisées, en les reconstruisant si elles n'existent pas encore
+     */
+    public List<ParcelleStat> getStats(Agriculteur agriculteur) {
+        List<ParcelleStat> stats = parcelleStatRepository.findByIdAgriculteurId(agriculteur.getId());
+        if (stats.isEmpty()) {
+            return reconstruire(agriculteur);
+        }
+        return stats;
+    }
+
+    /**
+     * Capturer les dimensions d'une parcelle avant sa modification ou sa suppression
+     */
+    public Empreinte empreinte(Parcelle parcelle) {
+        return new Empreinte(parcelle.getTypeCulture(), parcelle.getStatutCulture(), parcelle.getRegion(),
+                parcelle.getCommune(), parcelle.getIrrigation(), parcelle.getSurfaceHectares(),
+                parcelle.getDatePlantation());
+    }
+
+    @Transactional
+    public void parcelleAjoutee(Agriculteur agriculteur, Parcelle parcelle) {
+        Map<ParcelleStatId, Delta> deltas = new HashMap<>();
+        ajouterParcelle(deltas, agriculteur.getId(), empreinte(parcelle));
+        appliquer(agriculteur, deltas);
+    }
+
+    @Transactional
+    public void parcelleModifiee(Agriculteur agriculteur, Empreinte avant, Parcelle parcelle) {
+        Map<ParcelleStatId, Delta> deltas = new HashMap<>();
+        retirerParcelle(deltas, agriculteur.getId(), avant);
+        ajouterParcelle(deltas, agriculteur.getId(), empreinte(parcelle));
+        appliquer(agriculteur, deltas);
+    }
+
+    @Transactional
+    public void parcelleSupprimee(Agriculteur agriculteur, Empreinte avant) {
+        Map<ParcelleStatId, Delta> deltas = new HashMap<>();
+        retirerParcelle(deltas, agriculteur.getId(), avant);
+        appliquer(agriculteur, deltas);
+    }
+
+    /**
+     * Recalculer entièrement les statistiques d'un agriculteur depuis la table parcelles.
+     * S'exécute toujours dans sa propre transaction d'écriture, après le verrou de la ligne TOTAL :
+     * deux reconstructions du même agriculteur se succèdent au lieu de se heurter.
+     */
+    public List<ParcelleStat> reconstruire(Agriculteur agriculteur) {
+        log.info("Reconstruction des statistiques de parcelles pour l'agriculteur: {}", agriculteur.getId());
+
+        return nouvelleTransaction().execute(status -> {
+            verrouillerTotal(agriculteur.getId(), new Delta());
+            return recalculer(agriculteur);
+        });
+    }
+
+    /**
+     * Recalculer les statistiques dans la transaction courante, celle des écritures en masse qui les
+     * invalident (import) : elles sont validées ou annulées avec les parcelles, sans fenêtre où
+     * les parcelles sont visibles et les statistiques périmées.
+     */
+    @Transactional
+    public void reconstruireDansLaTransaction(Agriculteur agriculteur) {
+        verrouillerTotal(agriculteur.getId(), new Delta());
+        recalculer(agriculteur);
+    }
+
+    public List<ParcelleStat> reconstruire(Long agriculteurId) {
+        return reconstruire(getAgriculteur(agriculteurId));
+    }
+
+    /**
+     * Reconstruire les statistiques de tous les agriculteurs possédant des parcelles
+     */
+    public int reconstruireTout() {
+        List<Long> agriculteurIds = parcelleRepository.findDistinctAgriculteurIds();
+        for (Long agriculteurId : agriculteurIds) {
+            reconstruire(agriculteurId);
+        }
+        log.info("Statistiques reconstruites pour {} agriculteurs", agriculteurIds.size());
+        return agriculteurIds.size();
+    }
+
+    /**
+     * Comparer les statistiques stockées à un recalcul complet pour détecter une dérive
+     */
+    @Transactional(readOnly = true)
+    public CoherenceStatsDTO verifierCoherence(Long agriculteurId) {
+        Agriculteur agriculteur = getAgriculteur(agriculteurId);
+
+        Map<ParcelleStatId, Delta> attendues = calculerDepuisParcelles(agriculteur);
+        Map<ParcelleStatId, ParcelleStat> stockees = new HashMap<>();
+        for (ParcelleStat stat : parcelleStatRepository.findByIdAgriculteurId(agriculteurId)) {
+            stockees.put(stat.getId(), stat);
+        }
+
+        Set<ParcelleStatId> cles = new HashSet<>(attendues.keySet());
+        cles.addAll(stockees.keySet());
+
+        List<CoherenceStatsDTO.EcartDTO> ecarts = new ArrayList<>();
+        for (ParcelleStatId id : cles) {
+            Delta attendue = attendues.getOrDefault(id, new Delta());
+            ParcelleStat stockee = stockees.get(id);
+            long nombreStocke = stockee != null ? stockee.getNombre() : 0L;
+            BigDecimal surfaceStockee = stockee != null ? stockee.getSurface() : BigDecimal.ZERO;
+
+            if (attendue.nombre != nombreStocke || attendue.surface.compareTo(surfaceStockee) != 0) {
+                ecarts.add(CoherenceStatsDTO.EcartDTO.builder()
+                        .dimension(id.getDimension())
+                        .cle(id.getCle())
+                        .nombreAttendu(attendue.nombre)
+                        .nombreStocke(nombreStocke)
+                        .surfaceAttendue(attendue.surface)
+                        .surfaceStockee(surfaceStockee)
+                        .build());
+            }
+        }
+
+        if (!ecarts.isEmpty()) {
+            log.warn("Dérive détectée sur {} statistiques de l'agriculteur: {}", ecarts.size(), agriculteurId);
+        }
+
+        return CoherenceStatsDTO.builder()
+                .agriculteurId(agriculteurId)
+                .coherent(ecarts.isEmpty())
+                .ecarts(ecarts)
+                .build();
+    }
+
+    // Méthodes utilitaires privées
+
+    private Agriculteur getAgriculteur(Long agriculteurId) {
+        return (Agriculteur) userRepository.findById(agriculteurId)
+                .filter(user -> user instanceof Agriculteur)
+                .orElseThrow(() -> new ResourceNotFoundException("Agriculteur non trouvé"));
+    }
+
+    private TransactionTemplate nouvelleTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    /**
+     * Remplacer les lignes de l'agriculteur par un recalcul complet (verrou TOTAL déjà pris)
+     */
+    private List<ParcelleStat> recalculer(Agriculteur agriculteur) {
+        parcelleStatRepository.deleteByAgriculteurId(agriculteur.getId());
+
+        List<ParcelleStat> stats = new ArrayList<>();
+        calculerDepuisParcelles(agriculteur).forEach((id, delta) -> {
+            upsert(id, delta);
+            stats.add(new ParcelleStat(id, delta.nombre, delta.surface));
+        });
+        return stats;
+    }
+
+    private Map<ParcelleStatId, Delta> calculerDepuisParcelles(Agriculteur agriculteur) {
+        Long agriculteurId = agriculteur.getId();
+        Map<ParcelleStatId, Delta> resultat = new LinkedHashMap<>();
+
+        // La ligne TOTAL existe toujours, même sans parcelle, pour marquer l'agrégat comme initialisé
+        resultat.put(idTotal(agriculteurId), new Delta());
+
+        for (Object[] row : parcelleRepository.aggregerParAgriculteur(agriculteur)) {
+            Empreinte groupe = new Empreinte((String) row[0], (StatutCultureEnum) row[1], (String) row[2],
+                    (String) row[3], (Boolean) row[4], (BigDecimal) row[6], null);
+            contribuer(resultat, agriculteurId, groupe, ((Number) row[5]).longValue(), groupe.surface);
+        }
+
+        for (Object[] row : parcelleRepository.countAndSumByAgriculteurGroupByAnneeMois(agriculteur)) {
+            String mois = cleMois(YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()));
+            resultat.computeIfAbsent(new ParcelleStatId(agriculteurId, DimensionStatEnum.MOIS_PLANTATION, mois),
+                    id -> new Delta()).ajouter(((Number) row[2]).longValue(), (BigDecimal) row[3]);
+        }
+
+        return resultat;
+    }
+
+    private void ajouterParcelle(Map<ParcelleStatId, Delta> deltas, Long agriculteurId, Empreinte empreinte) {
+        contribuer(deltas, agriculteurId, empreinte, 1, empreinte.surface);
+    }
+
+    private void retirerParcelle(Map<ParcelleStatId, Delta> deltas, Long agriculteurId, Empreinte empreinte) {
+        contribuer(deltas, agriculteurId, empreinte, -1,
+                empreinte.surface != null ? empreinte.surface.negate() : null);
+    }
+
+    /**
+     * Répercuter sur chaque dimension la contribution (nombre, surface) d'une parcelle ou d'un groupe
+     */
+    private void contribuer(Map<ParcelleStatId, Delta> deltas, Long agriculteurId, Empreinte empreinte,
+                            long nombre, BigDecimal surface) {
+        ajouter(deltas, agriculteurId, DimensionStatEnum.TOTAL, CLE_TOTAL, nombre, surface);
+        ajouter(deltas, agriculteurId, DimensionStatEnum.TYPE_CULTURE,
+                empreinte.typeCulture != null ? empreinte.typeCulture : DashboardAggregation.NON_SPECIFIE,
+                nombre, surface);
+        ajouter(deltas, agriculteurId, DimensionStatEnum.STATUT,
+                empreinte.statut != null ? empreinte.statut.name() : DashboardAggregation.NON_SPECIFIE,
+                nombre, surface);
+        if (empreinte.region != null) {
+            ajouter(deltas, agriculteurId, DimensionStatEnum.REGION, empreinte.region, nombre, surface);
+        }
+        if (empreinte.commune != null) {
+            ajouter(deltas, agriculteurId, DimensionStatEnum.COMMUNE, empreinte.commune, nombre, surface);
+        }
+        if (empreinte.irrigation != null) {
+            ajouter(deltas, agriculteurId, DimensionStatEnum.IRRIGATION,
+                    empreinte.irrigation.toString(), nombre, surface);
+        }
+        if (empreinte.datePlantation != null) {
+            ajouter(deltas, agriculteurId, DimensionStatEnum.MOIS_PLANTATION,
+                    cleMois(YearMonth.from(empreinte.datePlantation)), nombre, surface);
+        }
+    }
+
+    private void ajouter(Map<ParcelleStatId, Delta> deltas, Long agriculteurId, DimensionStatEnum dimension,
+                         String cle, long nombre, BigDecimal surface) {
+        deltas.computeIfAbsent(new ParcelleStatId(agriculteurId, dimension, cle), id -> new Delta())
+                .ajouter(nombre, surface);
+    }
+
+    /**
+     * Appliquer les deltas, ligne TOTAL en premier. Si elle vient d'être créée, l'agriculteur n'avait
+     * pas de statistiques (parcelles antérieures à la table) : recalcul complet au lieu de partir de zéro.
+     */
+    private void appliquer(Agriculteur agriculteur, Map<ParcelleStatId, Delta> deltas) {
+        if (deltas.values().stream().allMatch(Delta::isNul)) {
+            return;
+        }
+
+        ParcelleStatId totalId = idTotal(agriculteur.getId());
+        verrouillerTotal(agriculteur.getId(), deltas.getOrDefault(totalId, new Delta()));
+        Long total = parcelleStatRepository.lireNombreVerrouille(
+                agriculteur.getId(), DimensionStatEnum.TOTAL.name(), CLE_TOTAL);
+        if (total == null || total == TOTAL_A_INITIALISER) {
+            log.info("Statistiques absentes pour l'agriculteur {}, recalcul complet", agriculteur.getId());
+            recalculer(agriculteur);
+            return;
+        }
+
+        deltas.forEach((id, delta) -> {
+            if (!id.equals(totalId) && !delta.isNul()) {
+                upsert(id, delta);
+            }
+        });
+    }
+
+    private void upsert(ParcelleStatId id, Delta delta) {
+        parcelleStatRepository.appliquerDelta(
+                id.getAgriculteurId(), id.getDimension().name(), id.getCle(), delta.nombre, delta.surface);
+    }
+
+    // Le nombre d'écritures renvoyé par l'upsert ne distingue pas une création d'une mise à jour sans
+    // changement (CLIENT_FOUND_ROWS de Connector/J) : une ligne créée porte donc une valeur marqueur
+    private void verrouillerTotal(Long agriculteurId, Delta delta) {
+        parcelleStatRepository.verrouillerTotal(agriculteurId, DimensionStatEnum.TOTAL.name(), CLE_TOTAL,
+                TOTAL_A_INITIALISER, delta.nombre, delta.surface);
+    }
+
+    private static ParcelleStatId idTotal(Long agriculteurId) {
+        return new ParcelleStatId(agriculteurId, DimensionStatEnum.TOTAL, CLE_TOTAL);
+    }
+
+    static String cleMois(YearMonth mois) {
+        return mois.toString();
+    }
+
+    private static class Delta {
+        private long nombre;
+        private BigDecimal surface = BigDecimal.ZERO;
+
+        private void ajouter(long nombre, BigDecimal surface) {
+            this.nombre += nombre;
+            if (surface != null) {
+                this.surface = this.surface.add(surface);
+            }
+        }
+
+        private boolean isNul() {
+            return nombre == 0 && surface.signum() == 0;
+        }
+    }
+
+    /**
+     * Valeurs d'une parcelle qui alimentent les statistiques
+     */
+    public static class Empreinte {
+        private final String typeCulture;
+        private final StatutCultureEnum statut;
+        private final String region;
+        private final String commune;
+        private final Boolean irrigation;
+        private final BigDecimal surface;
+        private final LocalDate datePlantation;
+
+        private Empreinte(String typeCulture, StatutCultureEnum statut, String region, String commune,
+                          Boolean irrigation, BigDecimal surface, LocalDate datePlantation) {
+            this.typeCulture = typeCulture;
+            this.statut = statut;
+            this.region = region;
+            this.commune = commune;
+            this.irrigation = irrigation;
+            this.surface = surface;
+            this.datePlantation = datePlantation;
+        }
+    }
+}
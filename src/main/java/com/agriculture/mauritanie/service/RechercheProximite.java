@@ -0,0 +1,101 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.geo.PositionDTO;
+import com.agriculture.mauritanie.exception.ValidationException;
+import com.agriculture.mauritanie.util.GeoUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Affinage exact d'une recherche par proximité : les candidats du rectangle englobant
+ * sont filtrés par distance de haversine, et seuls les plus proches sont conservés (tas borné).
+ */
+final class RechercheProximite {
+
+    static final double RAYON_MAX_KM = 200;
+    static final int LIMITE_MAX = 200;
+
+    private RechercheProximite() {
+    }
+
+    static void valider(double latitude, double longitude, double rayonKm) {
+        Map<String, String> erreurs = new HashMap<>();
+        if (!GeoUtil.latitudeValide(latitude)) {
+            erreurs.put("latitude", "La latitude doit être comprise entre -90 et 90");
+        }
+        if (!GeoUtil.longitudeValide(longitude)) {
+            erreurs.put("longitude", "La longitude doit être comprise entre -180 et 180");
+        }
+        if (!(rayonKm > 0) || rayonKm > RAYON_MAX_KM) {
+            erreurs.put("rayonKm", "Le rayon doit être compris entre 0 et " + (int) RAYON_MAX_KM + " km");
+        }
+        if (!erreurs.isEmpty()) {
+            throw new ValidationException("Paramètres de recherche invalides", erreurs);
+        }
+    }
+
+    static int limite(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAX));
+    }
+
+    /**
+     * Les candidats dans le rayon, du plus proche au plus éloigné
+     */
+    static List<Voisin> classer(List<PositionDTO> candidats, double latitude, double longitude,
+                                double rayonKm, int limite) {
+        // Tas max : la racine est le plus éloigné des voisins retenus
+        PriorityQueue<Voisin> retenus = new PriorityQueue<>(limite + 1,
+                Comparator.comparingDouble(Voisin::getDistanceKm).reversed());
+
+        for (PositionDTO candidat : candidats) {
+            if (candidat.getLatitude() == null || candidat.getLongitude() == null) {
+                continue;
+            }
+            double distance = GeoUtil.distanceKm(latitude, longitude,
+                    candidat.getLatitude().doubleValue(), candidat.getLongitude().doubleValue());
+            if (distance > rayonKm) {
+                continue;
+            }
+            if (retenus.size() < limite) {
+                retenus.add(new Voisin(candidat.getId(), distance));
+            } else if (distance < retenus.peek().getDistanceKm()) {
+                retenus.poll();
+                retenus.add(new Voisin(candidat.getId(), distance));
+            }
+        }
+
+        List<Voisin> resultat = new ArrayList<>(retenus);
+        resultat.sort(Comparator.comparingDouble(Voisin::getDistanceKm).thenComparing(Voisin::getId));
+        return resultat;
+    }
+
+    static final class Voisin {
+        private final Long id;
+        private final double distanceKm;
+
+        Voisin(Long id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+
+        Long getId() {
+            return id;
+        }
+
+        double getDistanceKm() {
+            return distanceKm;
+        }
+
+        /**
+         * Distance arrondie au mètre pour l'affichage
+         */
+        double getDistanceArrondie() {
+            return Math.round(distanceKm * 1000.0) / 1000.0;
+        }
+    }
+}
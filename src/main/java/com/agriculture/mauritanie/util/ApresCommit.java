@@ -0,0 +1,31 @@
+package com.agriculture.mauritanie.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Mise à jour d'un état en mémoire (index, planification) après la validation de la transaction courante.
+ * Appliquée avant le commit, elle survivrait à un rollback et exposerait une écriture jamais validée.
+ */
+public final class ApresCommit {
+
+    private ApresCommit() {
+    }
+
+    /**
+     * Exécute l'action après le commit de la transaction courante, ou tout de suite hors transaction.
+     * Rien n'est exécuté si la transaction est annulée.
+     */
+    public static void executer(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
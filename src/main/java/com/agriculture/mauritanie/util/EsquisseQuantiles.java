@@ -0,0 +1,93 @@
+package com.agriculture.mauritanie.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Esquisse de quantiles à erreur relative bornée (principe de DDSketch).
+ * Chaque valeur positive tombe dans un seau logarithmique de largeur relative 2α ;
+ * un quantile est restitué à ±α près sans conserver ni trier les valeurs.
+ * Les retraits sont exacts (décrément du seau), ce qui permet une mise à jour incrémentale.
+ * Non synchronisée.
+ */
+public class EsquisseQuantiles {
+
+    private final double gamma;
+    private final double logGamma;
+    private final TreeMap<Integer, Long> seaux = new TreeMap<>();
+    private long nombre;
+
+    /**
+     * @param precisionRelative erreur relative α sur les quantiles (0.01 = 1 %)
+     */
+    public EsquisseQuantiles(double precisionRelative) {
+        if (precisionRelative <= 0 || precisionRelative >= 1) {
+            throw new IllegalArgumentException("Précision relative hors de ]0, 1[: " + precisionRelative);
+        }
+        this.gamma = (1 + precisionRelative) / (1 - precisionRelative);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void ajouter(double valeur) {
+        if (!(valeur > 0)) {
+            return;
+        }
+        seaux.merge(seau(valeur), 1L, Long::sum);
+        nombre++;
+    }
+
+    /**
+     * Retire une valeur précédemment ajoutée
+     */
+    public void retirer(double valeur) {
+        if (!(valeur > 0)) {
+            return;
+        }
+        Integer seau = seau(valeur);
+        Long compte = seaux.get(seau);
+        if (compte == null) {
+            return;
+        }
+        if (compte == 1) {
+            seaux.remove(seau);
+        } else {
+            seaux.put(seau, compte - 1);
+        }
+        nombre--;
+    }
+
+    public long getNombre() {
+        return nombre;
+    }
+
+    public boolean isVide() {
+        return nombre == 0;
+    }
+
+    /**
+     * Valeur au quantile q (0 = minimum, 0.5 = médiane, 1 = maximum), ou NaN si l'esquisse est vide
+     */
+    public double quantile(double q) {
+        if (nombre == 0) {
+            return Double.NaN;
+        }
+        long rang = (long) Math.floor(Math.max(0, Math.min(1, q)) * (nombre - 1));
+        long cumul = 0;
+        for (Map.Entry<Integer, Long> entry : seaux.entrySet()) {
+            cumul += entry.getValue();
+            if (cumul > rang) {
+                return valeur(entry.getKey());
+            }
+        }
+        return valeur(seaux.lastKey());
+    }
+
+    private int seau(double valeur) {
+        return (int) Math.ceil(Math.log(valeur) / logGamma);
+    }
+
+    // Milieu du seau en erreur relative : 2γ^i / (γ + 1)
+    private double valeur(int seau) {
+        return 2 * Math.pow(gamma, seau) / (gamma + 1);
+    }
+}
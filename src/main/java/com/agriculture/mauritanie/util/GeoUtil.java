@@ -0,0 +1,68 @@
+package com.agriculture.mauritanie.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Calculs de distance sur la sphère terrestre.
+ * Tout est fait sur des double : les BigDecimal des entités ne sont convertis qu'une fois.
+ */
+public final class GeoUtil {
+
+    public static final double RAYON_TERRE_KM = 6371.0088;
+
+    private static final double KM_PAR_DEGRE_LATITUDE = Math.PI * RAYON_TERRE_KM / 180.0;
+
+    private GeoUtil() {
+    }
+
+    /**
+     * Distance orthodromique (formule de haversine) en kilomètres
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * RAYON_TERRE_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Rectangle lat/lon contenant le cercle de rayon donné, pour le préfiltre indexé.
+     * L'écart en longitude est celui des points de tangence (asin(sin δ / cos φ)) : l'approximation
+     * δ / cos φ est plus étroite et excluait des points situés au bord du rayon.
+     * L'antiméridien n'est pas traité, ce qui couvre la Mauritanie.
+     */
+    public static BoiteEnglobante boite(double latitude, double longitude, double rayonKm) {
+        double deltaLat = rayonKm / KM_PAR_DEGRE_LATITUDE;
+        double sinRayon = Math.sin(rayonKm / RAYON_TERRE_KM);
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        // Cercle contenant un pôle : toutes les longitudes
+        double deltaLon = sinRayon < cosLat ? Math.toDegrees(Math.asin(sinRayon / cosLat)) : 180.0;
+
+        return new BoiteEnglobante(
+                Math.max(latitude - deltaLat, -90.0),
+                Math.min(latitude + deltaLat, 90.0),
+                Math.max(longitude - deltaLon, -180.0),
+                Math.min(longitude + deltaLon, 180.0));
+    }
+
+    public static boolean latitudeValide(double latitude) {
+        return latitude >= -90.0 && latitude <= 90.0;
+    }
+
+    public static boolean longitudeValide(double longitude) {
+        return longitude >= -180.0 && longitude <= 180.0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class BoiteEnglobante {
+        private final double latitudeMin;
+        private final double latitudeMax;
+        private final double longitudeMin;
+        private final double longitudeMax;
+    }
+}
@@ -0,0 +1,84 @@
+package com.agriculture.mauritanie.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV minimal (RFC 4180) : séparateur virgule ou point-virgule,
+ * champs entre guillemets pouvant contenir séparateurs, guillemets doublés et retours à la ligne.
+ */
+public class LecteurCsv {
+
+    private final Reader reader;
+    private final char separateur;
+    private int suivant = -2;
+
+    public LecteurCsv(Reader reader, char separateur) {
+        this.reader = reader;
+        this.separateur = separateur;
+    }
+
+    /**
+     * Lit l'enregistrement suivant, ou null en fin de fichier
+     */
+    public List<String> lire() throws IOException {
+        int c = lireCaractere();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean entreGuillemets = false;
+
+        while (c != -1) {
+            if (entreGuillemets) {
+                if (c == '"') {
+                    int apres = lireCaractere();
+                    if (apres == '"') {
+                        champ.append('"');
+                    } else {
+                        entreGuillemets = false;
+                        remettre(apres);
+                    }
+                } else {
+                    champ.append((char) c);
+                }
+            } else if (c == '"' && champ.isEmpty()) {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                champs.add(champ.toString());
+                champ.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int apres = lireCaractere();
+                    if (apres != '\n') {
+                        remettre(apres);
+                    }
+                }
+                break;
+            } else {
+                champ.append((char) c);
+            }
+            c = lireCaractere();
+        }
+
+        champs.add(champ.toString());
+        return champs;
+    }
+
+    private int lireCaractere() throws IOException {
+        if (suivant != -2) {
+            int c = suivant;
+            suivant = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void remettre(int c) {
+        suivant = c;
+    }
+}
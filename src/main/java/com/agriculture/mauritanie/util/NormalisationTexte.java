@@ -0,0 +1,69 @@
+package com.agriculture.mauritanie.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation des textes pour la recherche : insensible à la casse,
+ * aux accents français et aux signes diacritiques arabes.
+ * "Maraîchage" et "maraichage" donnent le même terme, de même que "طماطم" avec ou sans harakat.
+ */
+public final class NormalisationTexte {
+
+    public static final int LONGUEUR_MIN = 2;
+    public static final int LONGUEUR_MAX = 100;
+
+    // Accents latins et harakat arabes (classe Unicode "Mark"), plus le tatweel
+    private static final Pattern MARQUES = Pattern.compile("[\\p{M}\\u0640]");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final Set<String> MOTS_VIDES = Set.of(
+            "de", "des", "du", "la", "le", "les", "et", "en", "au", "aux", "un", "une", "sur", "pour");
+
+    private NormalisationTexte() {
+    }
+
+    /**
+     * Met un texte sous forme canonique (minuscules, sans accents ni diacritiques)
+     */
+    public static String normaliser(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        String decompose = Normalizer.normalize(texte, Normalizer.Form.NFD);
+        String sansMarques = MARQUES.matcher(decompose).replaceAll("");
+        StringBuilder resultat = new StringBuilder(sansMarques.length());
+        for (int i = 0; i < sansMarques.length(); i++) {
+            resultat.append(unifierLettreArabe(sansMarques.charAt(i)));
+        }
+        return resultat.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Découpe un texte normalisé en termes indexables
+     */
+    public static List<String> termes(String texte) {
+        List<String> termes = new ArrayList<>();
+        for (String terme : SEPARATEURS.split(normaliser(texte))) {
+            if (terme.length() >= LONGUEUR_MIN && !MOTS_VIDES.contains(terme)) {
+                termes.add(terme.length() > LONGUEUR_MAX ? terme.substring(0, LONGUEUR_MAX) : terme);
+            }
+        }
+        return termes;
+    }
+
+    private static char unifierLettreArabe(char c) {
+        return switch (c) {
+            case 'آ', 'أ', 'إ', 'ٱ' -> 'ا'; // formes d'alef
+            case 'ة' -> 'ه'; // ta marbuta
+            case 'ى' -> 'ي'; // alef maqsura
+            case 'ؤ' -> 'و';
+            case 'ئ' -> 'ي';
+            default -> c;
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package com.agriculture.mauritanie.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aiguillage primaire / réplique, lectures forcées sur le primaire et repli temporaire
+ * quand la réplique ne fournit pas de connexion.
+ */
+class RoutageLectureEcritureDataSourceTest {
+
+    private static final Duration DELAI_REPLI = Duration.ofSeconds(30);
+
+    private final DataSource primaire = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection connexionPrimaire = mock(Connection.class);
+    private final Connection connexionReplica = mock(Connection.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HorlogeReglable horloge = new HorlogeReglable(Instant.parse("2024-03-10T08:00:00Z"));
+
+    private RoutageLectureEcritureDataSource routage;
+
+    @BeforeEach
+    void creerRoutage() throws SQLException {
+        when(primaire.getConnection()).thenReturn(connexionPrimaire);
+        when(replica.getConnection()).thenReturn(connexionReplica);
+        routage = new RoutageLectureEcritureDataSource(primaire, replica, DELAI_REPLI, meterRegistry, horloge);
+    }
+
+    @AfterEach
+    void reinitialiserTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void ecrituresEtCodeHorsTransactionSurLePrimaire() throws SQLException {
+        assertThat(routage.getConnection()).isSameAs(connexionPrimaire);
+        verify(replica, never()).getConnection();
+        assertThat(compteur("primaire")).isEqualTo(1);
+    }
+
+    @Test
+    void lecturesSeulesSurLaReplique() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routage.getConnection()).isSameAs(connexionReplica);
+        verify(primaire, never()).getConnection();
+        assertThat(compteur("replica")).isEqualTo(1);
+    }
+
+    @Test
+    void lectureMarqueeSurLePrimaire() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(LecturePrimaire.executer(this::connexion)).isSameAs(connexionPrimaire);
+        verify(replica, never()).getConnection();
+
+        // Le marqueur ne survit pas à l'appel
+        assertThat(routage.getConnection()).isSameAs(connexionReplica);
+    }
+
+    @Test
+    void repliSurLePrimairePendantLeDelaiPuisNouvelEssai() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection())
+                .thenThrow(new SQLException("Connexion refusée"))
+                .thenReturn(connexionReplica);
+
+        assertThat(routage.getConnection()).isSameAs(connexionPrimaire);
+
+        // Réplique écartée : pas de nouvel essai avant la fin du délai
+        horloge.avancer(DELAI_REPLI.minusSeconds(1));
+        assertThat(routage.getConnection()).isSameAs(connexionPrimaire);
+        verify(replica, times(1)).getConnection();
+
+        horloge.avancer(Duration.ofSeconds(1));
+        assertThat(routage.getConnection()).isSameAs(connexionReplica);
+        verify(replica, times(2)).getConnection();
+        assertThat(compteur("repli")).isEqualTo(2);
+    }
+
+    @Test
+    void echecDInitialisationDuPoolTraiteCommeUneIndisponibilite() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenThrow(new IllegalStateException("Pool non initialisé"));
+
+        assertThat(routage.getConnection()).isSameAs(connexionPrimaire);
+        assertThat(routage.getConnection()).isSameAs(connexionPrimaire);
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void identifiantsExplicitesSurLePrimaire() throws SQLException {
+        when(primaire.getConnection("admin", "secret")).thenReturn(connexionPrimaire);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routage.getConnection("admin", "secret")).isSameAs(connexionPrimaire);
+        verify(replica, never()).getConnection();
+    }
+
+    private Connection connexion() {
+        try {
+            return routage.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double compteur(String cible) {
+        return meterRegistry.get("datasource.routage").tag("cible", cible).counter().count();
+    }
+
+    private static final class HorlogeReglable extends Clock {
+        private Instant maintenant;
+
+        HorlogeReglable(Instant maintenant) {
+            this.maintenant = maintenant;
+        }
+
+        void avancer(Duration duree) {
+            maintenant = maintenant.plus(duree);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return maintenant;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.agriculture.mauritanie.controller;
+
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.OffreMarche;
+import com.agriculture.mauritanie.entity.Parcelle;
+import com.agriculture.mauritanie.entity.StatutCultureEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import com.agriculture.mauritanie.repository.OffreMarcheRepository;
+import com.agriculture.mauritanie.repository.ParcelleRepository;
+import com.agriculture.mauritanie.repository.UserRepository;
+import com.agriculture.mauritanie.security.JwtTokenProvider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sans open-in-view, les associations LAZY (OffreMarche.vendeur, Parcelle.agriculteur) doivent être
+ * chargées dans la transaction du service : aucune LazyInitializationException pendant la construction
+ * ou la sérialisation de la réponse. Les données sont validées hors transaction de test, comme en production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AssociationsParesseusesIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ParcelleRepository parcelleRepository;
+
+    @Autowired
+    private OffreMarcheRepository offreMarcheRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private Agriculteur agriculteur;
+    private Parcelle parcelle;
+    private OffreMarche offre;
+
+    @BeforeEach
+    void creerDonnees() {
+        Agriculteur nouveau = new Agriculteur();
+        nouveau.setNom("Vendeur test");
+        nouveau.setTelephone("22998877");
+        nouveau.setMotDePasseHash("hash");
+        nouveau.setRegion("Trarza");
+        agriculteur = userRepository.save(nouveau);
+
+        Parcelle nouvelleParcelle = new Parcelle();
+        nouvelleParcelle.setNomParcelle("Parcelle du fleuve");
+        nouvelleParcelle.setTypeCulture("Riz");
+        nouvelleParcelle.setStatutCulture(StatutCultureEnum.EN_CROISSANCE);
+        nouvelleParcelle.setSurfaceHectares(new BigDecimal("2.50"));
+        nouvelleParcelle.setIrrigation(true);
+        nouvelleParcelle.setAgriculteur(agriculteur);
+        parcelle = parcelleRepository.save(nouvelleParcelle);
+
+        OffreMarche nouvelleOffre = new OffreMarche();
+        nouvelleOffre.setProduit("Riz");
+        nouvelleOffre.setQuantite(new BigDecimal("500.00"));
+        nouvelleOffre.setUnite(UniteEnum.KG);
+        nouvelleOffre.setPrixUnitaire(new BigDecimal("300.00"));
+        nouvelleOffre.setRegion("Trarza");
+        nouvelleOffre.setVendeur(agriculteur);
+        offre = offreMarcheRepository.save(nouvelleOffre);
+    }
+
+    @AfterEach
+    void supprimerDonnees() {
+        offreMarcheRepository.deleteAll();
+        parcelleRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void detailPublicDUneOffreAvecSonVendeur() throws Exception {
+        mockMvc.perform(get("/api/public/offres/{id}", offre.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(offre.getId()))
+                .andExpect(jsonPath("$.data.vendeurId").value(agriculteur.getId()))
+                .andExpect(jsonPath("$.data.vendeurNom").value("Vendeur test"))
+                .andExpect(jsonPath("$.data.vendeurTelephone").value("22998877"));
+    }
+
+    @Test
+    void offresDeLAgriculteurConnecte() throws Exception {
+        mockMvc.perform(get("/api/agriculteur/offres").header(HttpHeaders.AUTHORIZATION, jeton()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(offre.getId()));
+
+        mockMvc.perform(put("/api/agriculteur/offres/{id}/statut", offre.getId())
+                        .param("statut", "RESERVE")
+                        .header(HttpHeaders.AUTHORIZATION, jeton()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.statut").value("RESERVE"))
+                .andExpect(jsonPath("$.data.vendeurNom").value("Vendeur test"));
+
+        mockMvc.perform(get("/api/agriculteur/offres/{id}/acheteurs", offre.getId())
+                        .header(HttpHeaders.AUTHORIZATION, jeton()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void parcellesDeLAgriculteurConnecte() throws Exception {
+        mockMvc.perform(get("/api/agriculteur/parcelles/{id}", parcelle.getId())
+                        .header(HttpHeaders.AUTHORIZATION, jeton()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nomParcelle").value("Parcelle du fleuve"));
+
+        mockMvc.perform(get("/api/agriculteur/parcelles").header(HttpHeaders.AUTHORIZATION, jeton()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(parcelle.getId()));
+    }
+
+    private String jeton() {
+        return "Bearer " + jwtTokenProvider.generateToken(agriculteur);
+    }
+}
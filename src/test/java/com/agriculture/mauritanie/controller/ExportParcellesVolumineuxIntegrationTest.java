@@ -0,0 +1,153 @@
+package com.agriculture.mauritanie.controller;
+
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.repository.UserRepository;
+import com.agriculture.mauritanie.security.JwtTokenProvider;
+import com.agriculture.mauritanie.util.LecteurCsv;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Export en flux de 200 000 parcelles, exécuté à part avec un tas réduit (exécution surefire
+ * export-volumineux) : une lecture qui chargerait toutes les lignes avant d'écrire ne tiendrait pas.
+ * MockMvc garde la réponse en mémoire et H2 les parcelles : le tas est dimensionné pour elles et
+ * le contexte, pas en plus pour les projections et DTO de toutes les parcelles.
+ */
+@Tag("volumineux")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportParcellesVolumineuxIntegrationTest {
+
+    private static final int PARCELLES = 200_000;
+    private static final int TAILLE_LOT = 1_000;
+
+    private static final String INSERT_SQL = "INSERT INTO parcelles (nom_parcelle, surface_hectares, type_culture, " +
+            "commune, statut_culture, irrigation, agriculteur_id, date_creation, date_modification) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Noms et communes qui doivent être échappés en CSV
+    private static final String NOM_A_ECHAPPER = "Riz, \"nord\"";
+    private static final String COMMUNE_A_ECHAPPER = "Rosso\nNord";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private Agriculteur agriculteur;
+
+    @BeforeEach
+    void creerParcelles() {
+        Agriculteur nouveau = new Agriculteur();
+        nouveau.setNom("Exportateur test");
+        nouveau.setTelephone("22110099");
+        nouveau.setMotDePasseHash("hash");
+        agriculteur = userRepository.save(nouveau);
+
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> lot = new ArrayList<>(TAILLE_LOT);
+        for (int i = 0; i < PARCELLES; i++) {
+            boolean aEchapper = i % 50_000 == 0;
+            lot.add(new Object[]{aEchapper ? NOM_A_ECHAPPER : "P" + i, "1.50", "Riz",
+                    aEchapper ? COMMUNE_A_ECHAPPER : "Rosso", "PLANTE", i % 2 == 0, agriculteur.getId(),
+                    maintenant, maintenant});
+            if (lot.size() == TAILLE_LOT) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, lot);
+                lot.clear();
+            }
+        }
+    }
+
+    @AfterEach
+    void supprimerParcelles() {
+        jdbcTemplate.update("DELETE FROM parcelles WHERE agriculteur_id = ?", agriculteur.getId());
+        userRepository.deleteById(agriculteur.getId());
+    }
+
+    @Test
+    void exportNdjsonUneLigneParParcelle() throws Exception {
+        byte[] corps = exporter("ndjson");
+
+        long lignes = 0;
+        for (byte octet : corps) {
+            if (octet == '\n') {
+                lignes++;
+            }
+        }
+        assertThat(lignes).isEqualTo(PARCELLES);
+        assertThat(new String(corps, StandardCharsets.UTF_8))
+                .contains("\"nomParcelle\":\"Riz, \\\"nord\\\"\"")
+                .contains("\"commune\":\"Rosso\\nNord\"");
+    }
+
+    @Test
+    void exportCsvEchappeLesChamps() throws Exception {
+        String corps = new String(exporter("csv"), StandardCharsets.UTF_8);
+        assertThat(corps).contains("\"Riz, \"\"nord\"\"\",1.50,Riz,\"Rosso\nNord\",PLANTE,");
+
+        LecteurCsv csv = new LecteurCsv(new StringReader(corps), ',');
+        assertThat(csv.lire()).startsWith("id", "nomParcelle");
+        int enregistrements = 0;
+        int echappes = 0;
+        List<String> champs;
+        while ((champs = csv.lire()) != null) {
+            assertThat(champs).hasSize(10);
+            enregistrements++;
+            if (NOM_A_ECHAPPER.equals(champs.get(1))) {
+                assertThat(champs.get(4)).isEqualTo(COMMUNE_A_ECHAPPER);
+                echappes++;
+            }
+        }
+        assertThat(enregistrements).isEqualTo(PARCELLES);
+        assertThat(echappes).isEqualTo(PARCELLES / 50_000);
+    }
+
+    private byte[] exporter(String format) throws Exception {
+        MvcResult demarrage = mockMvc.perform(get("/api/agriculteur/parcelles/export")
+                        .param("format", format)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtTokenProvider.generateToken(agriculteur)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(demarrage))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"parcelles." + format + "\""))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+}
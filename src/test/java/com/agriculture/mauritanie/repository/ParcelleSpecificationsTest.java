@@ -0,0 +1,167 @@
+package com.agriculture.mauritanie.repository;
+
+import com.agriculture.mauritanie.dto.parcelle.ParcelleFiltreRequest;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.Parcelle;
+import com.agriculture.mauritanie.entity.StatutCultureEnum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chaque critère de ParcelleSpecifications seul puis combiné deux à deux, comparé au même filtre
+ * appliqué en mémoire. Les parcelles d'un autre agriculteur ne doivent jamais remonter.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ParcelleSpecificationsTest {
+
+    private static final List<Critere> CRITERES = List.of(
+            new Critere("typeCulture", f -> f.setTypeCulture("Riz"),
+                    p -> "Riz".equals(p.getTypeCulture())),
+            new Critere("statut", f -> f.setStatut(StatutCultureEnum.EN_CROISSANCE),
+                    p -> p.getStatutCulture() == StatutCultureEnum.EN_CROISSANCE),
+            new Critere("region", f -> f.setRegion("Trarza"),
+                    p -> "Trarza".equals(p.getRegion())),
+            new Critere("commune", f -> f.setCommune("Rosso"),
+                    p -> "Rosso".equals(p.getCommune())),
+            new Critere("irrigation", f -> f.setIrrigation(true),
+                    p -> Boolean.TRUE.equals(p.getIrrigation())),
+            new Critere("surfaceMin", f -> f.setSurfaceMin(new BigDecimal("1.00")),
+                    p -> p.getSurfaceHectares().compareTo(new BigDecimal("1.00")) >= 0),
+            new Critere("surfaceMax", f -> f.setSurfaceMax(new BigDecimal("2.50")),
+                    p -> p.getSurfaceHectares().compareTo(new BigDecimal("2.50")) <= 0),
+            new Critere("datePlantationDebut", f -> f.setDatePlantationDebut(LocalDate.of(2024, 2, 1)),
+                    p -> p.getDatePlantation() != null && !p.getDatePlantation().isBefore(LocalDate.of(2024, 2, 1))),
+            new Critere("datePlantationFin", f -> f.setDatePlantationFin(LocalDate.of(2024, 3, 31)),
+                    p -> p.getDatePlantation() != null && !p.getDatePlantation().isAfter(LocalDate.of(2024, 3, 31))),
+            new Critere("dateRecolteDebut", f -> f.setDateRecolteDebut(LocalDate.of(2024, 5, 1)),
+                    p -> p.getDateRecoltePrevue() != null && !p.getDateRecoltePrevue().isBefore(LocalDate.of(2024, 5, 1))),
+            new Critere("dateRecolteFin", f -> f.setDateRecolteFin(LocalDate.of(2024, 8, 1)),
+                    p -> p.getDateRecoltePrevue() != null && !p.getDateRecoltePrevue().isAfter(LocalDate.of(2024, 8, 1)))
+    );
+
+    @Autowired
+    private ParcelleRepository parcelleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Agriculteur agriculteur;
+    private final List<Parcelle> parcelles = new ArrayList<>();
+
+    @BeforeEach
+    void creerParcelles() {
+        agriculteur = creerAgriculteur("22334455");
+        parcelles.add(creer(agriculteur, "P1", "Riz", StatutCultureEnum.EN_CROISSANCE, "Trarza", "Rosso", true,
+                "2.50", LocalDate.of(2024, 3, 10), LocalDate.of(2024, 7, 10)));
+        parcelles.add(creer(agriculteur, "P2", "Riz", StatutCultureEnum.PRET_A_RECOLTER, "Trarza", "Keur Macène",
+                false, "1.00", LocalDate.of(2024, 1, 15), LocalDate.of(2024, 5, 20)));
+        parcelles.add(creer(agriculteur, "P3", "Mil", StatutCultureEnum.EN_CROISSANCE, "Brakna", "Aleg", false,
+                "4.00", LocalDate.of(2024, 6, 1), LocalDate.of(2024, 10, 1)));
+        parcelles.add(creer(agriculteur, "P4", "Mil", StatutCultureEnum.RECOLTE, "Gorgol", "Kaédi", true,
+                "0.50", LocalDate.of(2023, 7, 1), LocalDate.of(2023, 11, 15)));
+        parcelles.add(creer(agriculteur, "P5", "Sorgho", StatutCultureEnum.PLANTE, "Brakna", "Aleg", true,
+                "3.00", null, null));
+        parcelles.add(creer(agriculteur, "P6", "Maraîchage", StatutCultureEnum.EN_FLORAISON, "Trarza", "Rosso",
+                true, "0.75", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 15)));
+
+        // Même profil que P1, chez un autre agriculteur
+        creer(creerAgriculteur("33445566"), "P1", "Riz", StatutCultureEnum.EN_CROISSANCE, "Trarza", "Rosso",
+                true, "2.50", LocalDate.of(2024, 3, 10), LocalDate.of(2024, 7, 10));
+    }
+
+    @Test
+    void sansCritereToutesLesParcellesDeLAgriculteur() {
+        assertThat(rechercher(List.of())).isEqualTo(ids(parcelles.stream()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("combinaisons")
+    void combinaisonIdentiqueAuFiltreEnMemoire(String libelle, List<Critere> criteres) {
+        Predicate<Parcelle> attendu = criteres.stream()
+                .map(Critere::attendu)
+                .reduce(p -> true, Predicate::and);
+
+        assertThat(rechercher(criteres)).isEqualTo(ids(parcelles.stream().filter(attendu)));
+    }
+
+    static Stream<Arguments> combinaisons() {
+        List<Arguments> combinaisons = new ArrayList<>();
+        for (int i = 0; i < CRITERES.size(); i++) {
+            Critere premier = CRITERES.get(i);
+            combinaisons.add(Arguments.of(premier.nom(), List.of(premier)));
+            for (int j = i + 1; j < CRITERES.size(); j++) {
+                Critere second = CRITERES.get(j);
+                combinaisons.add(Arguments.of(premier.nom() + " + " + second.nom(), List.of(premier, second)));
+            }
+        }
+        return combinaisons.stream();
+    }
+
+    private Set<Long> rechercher(List<Critere> criteres) {
+        ParcelleFiltreRequest filtre = new ParcelleFiltreRequest();
+        criteres.forEach(critere -> critere.appliquer().accept(filtre));
+        return ids(parcelleRepository.findAll(ParcelleSpecifications.filtrer(agriculteur, filtre)).stream());
+    }
+
+    private static Set<Long> ids(Stream<Parcelle> parcelles) {
+        return parcelles.map(Parcelle::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private Agriculteur creerAgriculteur(String telephone) {
+        Agriculteur nouveau = new Agriculteur();
+        nouveau.setNom("Agriculteur " + telephone);
+        nouveau.setTelephone(telephone);
+        nouveau.setMotDePasseHash("hash");
+        return userRepository.save(nouveau);
+    }
+
+    private Parcelle creer(Agriculteur proprietaire, String nom, String typeCulture, StatutCultureEnum statut,
+                           String region, String commune, boolean irrigation, String surface,
+                           LocalDate datePlantation, LocalDate dateRecolte) {
+        Parcelle parcelle = new Parcelle();
+        parcelle.setNomParcelle(nom);
+        parcelle.setTypeCulture(typeCulture);
+        parcelle.setStatutCulture(statut);
+        parcelle.setRegion(region);
+        parcelle.setCommune(commune);
+        parcelle.setIrrigation(irrigation);
+        parcelle.setSurfaceHectares(new BigDecimal(surface));
+        parcelle.setDatePlantation(datePlantation);
+        parcelle.setDateRecoltePrevue(dateRecolte);
+        parcelle.setAgriculteur(proprietaire);
+        return parcelleRepository.save(parcelle);
+    }
+
+    /**
+     * Un critère du filtre et son équivalent en mémoire
+     */
+    record Critere(String nom, Consumer<ParcelleFiltreRequest> appliquer, Predicate<Parcelle> attendu) {
+        @Override
+        public String toString() {
+            return nom;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.appariement.ProfilAcheteurProjection;
+import com.agriculture.mauritanie.entity.Acheteur;
+import com.agriculture.mauritanie.entity.CertificationEnum;
+import com.agriculture.mauritanie.entity.OffreMarche;
+import com.agriculture.mauritanie.entity.StatutEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import com.agriculture.mauritanie.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sélection des acheteurs candidats d'une offre : produit, zone d'achat (région ou tout le pays),
+ * prix maximum au kg et certification exigée.
+ */
+class AppariementServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private AppariementService service;
+
+    @BeforeEach
+    void creerService() {
+        service = new AppariementService(userRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void acheteursDeLaRegionEtAcheteursNationaux() {
+        service.indexer(acheteur(1L, "Riz, Mil", "Trarza", null, false, 10.0));
+        service.indexer(acheteur(2L, "riz", "Toutes", null, false, 50.0));
+        service.indexer(acheteur(3L, "Riz", "Mauritanie, Trarza", null, false, 5.0));
+        service.indexer(acheteur(4L, "Riz", null, null, false, 1.0));
+        service.indexer(acheteur(5L, "Riz", "Brakna; Gorgol", null, false, 100.0));
+        service.indexer(acheteur(6L, "Mil", "Trarza", null, false, 100.0));
+
+        // Zone ciblée d'abord, puis les plus gros volumes ; 5 (autre région) et 6 (autre produit) exclus
+        assertThat(apparier(offre("Riz", "Trarza", "300", UniteEnum.KG, null)))
+                .containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void produitEtRegionComparesSansCasseNiAccents() {
+        service.indexer(acheteur(1L, "Maraîchage / Oignon", "Hodh El Gharbi", null, false, 1.0));
+
+        assertThat(apparier(offre("maraichage", "HODH  el gharbi", "100", UniteEnum.KG, null))).containsExactly(1L);
+        assertThat(apparier(offre("Oignon", "Hodh El Chargui", "100", UniteEnum.KG, null))).isEmpty();
+    }
+
+    @Test
+    void prixMaximumCompareAuKg() {
+        service.indexer(acheteur(1L, "Riz", "Trarza", 300.0, false, 1.0));
+        service.indexer(acheteur(2L, "Riz", "Trarza", null, false, 1.0));
+
+        assertThat(apparier(offre("Riz", "Trarza", "300", UniteEnum.KG, null))).containsExactly(1L, 2L);
+        assertThat(apparier(offre("Riz", "Trarza", "300.01", UniteEnum.KG, null))).containsExactly(2L);
+        // 250 000 la tonne = 250 le kg
+        assertThat(apparier(offre("Riz", "Trarza", "250000", UniteEnum.TONNE, null))).containsExactly(1L, 2L);
+        assertThat(apparier(offre("Riz", "Trarza", "350000", UniteEnum.TONNE, null))).containsExactly(2L);
+        // Unité sans équivalence en poids : le prix maximum ne s'applique pas
+        assertThat(apparier(offre("Riz", "Trarza", "5000", UniteEnum.SAC, null))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void certificationExigee() {
+        service.indexer(acheteur(1L, "Riz", "Trarza", null, true, 1.0));
+        service.indexer(acheteur(2L, "Riz", "Trarza", null, false, 1.0));
+
+        assertThat(apparier(offre("Riz", "Trarza", "300", UniteEnum.KG, CertificationEnum.BIO)))
+                .containsExactly(1L, 2L);
+        assertThat(apparier(offre("Riz", "Trarza", "300", UniteEnum.KG, CertificationEnum.COMMERCE_EQUITABLE)))
+                .containsExactly(1L, 2L);
+        assertThat(apparier(offre("Riz", "Trarza", "300", UniteEnum.KG, CertificationEnum.TRADITIONNEL)))
+                .containsExactly(2L);
+        assertThat(apparier(offre("Riz", "Trarza", "300", UniteEnum.KG, null))).containsExactly(2L);
+    }
+
+    @Test
+    void profilModifieOuDesactiveReindexe() {
+        Acheteur acheteur = acheteur(1L, "Riz", "Trarza", null, false, 1.0);
+        service.indexer(acheteur);
+
+        acheteur.setProduitsRecherches("Mil");
+        service.indexer(acheteur);
+        assertThat(apparier(offre("Riz", "Trarza", "300", UniteEnum.KG, null))).isEmpty();
+        assertThat(apparier(offre("Mil", "Trarza", "300", UniteEnum.KG, null))).containsExactly(1L);
+
+        acheteur.setStatut(StatutEnum.SUSPENDU);
+        service.indexer(acheteur);
+        assertThat(apparier(offre("Mil", "Trarza", "300", UniteEnum.KG, null))).isEmpty();
+    }
+
+    @Test
+    void reconstructionDepuisLaTable() {
+        service.indexer(acheteur(9L, "Riz", "Trarza", null, false, 1.0));
+        when(userRepository.findProfilsAcheteurs(StatutEnum.ACTIF)).thenReturn(List.of(
+                new ProfilAcheteurProjection(1L, "Riz", "Trarza", null, false, 2.0),
+                new ProfilAcheteurProjection(2L, "Riz", "national", null, null, 1.0),
+                new ProfilAcheteurProjection(3L, null, "Trarza", null, false, 1.0)));
+
+        service.reconstruire();
+
+        // L'index reflète la table : 9 n'y figure plus, 3 (sans produit) n'est jamais candidat
+        assertThat(apparier(offre("Riz", "Trarza", "300", UniteEnum.KG, null))).containsExactly(1L, 2L);
+    }
+
+    private List<Long> apparier(OffreMarche offre) {
+        return service.apparier(offre).stream().map(AppariementService.Correspondance::getAcheteurId).toList();
+    }
+
+    private static Acheteur acheteur(Long id, String produits, String zone, Double prixMaximum,
+                                     boolean certificationRequise, Double volumeMensuel) {
+        Acheteur acheteur = new Acheteur();
+        acheteur.setId(id);
+        acheteur.setProduitsRecherches(produits);
+        acheteur.setZoneAchat(zone);
+        acheteur.setPrixMaximum(prixMaximum);
+        acheteur.setCertificationRequise(certificationRequise);
+        acheteur.setVolumeMensuel(volumeMensuel);
+        return acheteur;
+    }
+
+    private static OffreMarche offre(String produit, String region, String prix, UniteEnum unite,
+                                     CertificationEnum certification) {
+        OffreMarche offre = new OffreMarche();
+        offre.setProduit(produit);
+        offre.setRegion(region);
+        offre.setPrixUnitaire(new BigDecimal(prix));
+        offre.setUnite(unite);
+        offre.setCertification(certification);
+        return offre;
+    }
+}
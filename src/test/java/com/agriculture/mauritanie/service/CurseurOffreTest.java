@@ -0,0 +1,76 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.offre.OffreFiltreRequest;
+import com.agriculture.mauritanie.dto.offre.OffreResumeDTO;
+import com.agriculture.mauritanie.entity.QualiteEnum;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import com.agriculture.mauritanie.repository.OffreMarcheRepositoryCustom.Position;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Le curseur de consultation des offres restitue la position de la dernière ligne lue,
+ * et n'est accepté que pour le tri qui l'a produit.
+ */
+class CurseurOffreTest {
+
+    private final OffreResumeDTO offre = new OffreResumeDTO(42L, "Riz", null, new BigDecimal("100.00"),
+            UniteEnum.KG, new BigDecimal("350.50"), true, "Rosso", "Trarza", QualiteEnum.STANDARD,
+            StatutOffreEnum.DISPONIBLE, LocalDateTime.of(2024, 3, 10, 8, 30, 15), null);
+
+    @Test
+    void triParPrixRestituePrixEtIdentifiant() {
+        String curseur = CurseurOffre.encoder(OffreFiltreRequest.Tri.PRIX, offre);
+
+        Position position = CurseurOffre.decoder(curseur, OffreFiltreRequest.Tri.PRIX);
+
+        assertThat(position.getPrixUnitaire()).isEqualByComparingTo("350.50");
+        assertThat(position.getDatePublication()).isNull();
+        assertThat(position.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void triRecentRestitueDateEtIdentifiant() {
+        String curseur = CurseurOffre.encoder(OffreFiltreRequest.Tri.RECENT, offre);
+
+        Position position = CurseurOffre.decoder(curseur, OffreFiltreRequest.Tri.RECENT);
+
+        assertThat(position.getDatePublication()).isEqualTo(LocalDateTime.of(2024, 3, 10, 8, 30, 15));
+        assertThat(position.getPrixUnitaire()).isNull();
+        assertThat(position.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void curseurUtilisableDansUneUrl() {
+        assertThat(CurseurOffre.encoder(OffreFiltreRequest.Tri.RECENT, offre)).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void curseurRefusePourUnAutreTri() {
+        String curseur = CurseurOffre.encoder(OffreFiltreRequest.Tri.PRIX, offre);
+
+        assertThatThrownBy(() -> CurseurOffre.decoder(curseur, OffreFiltreRequest.Tri.RECENT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur de pagination invalide");
+    }
+
+    @Test
+    void curseurMalFormeRefuse() {
+        String valeurInvalide = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("PRIX|abc|42".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> CurseurOffre.decoder("pas un curseur!", OffreFiltreRequest.Tri.PRIX))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CurseurOffre.decoder(valeurInvalide, OffreFiltreRequest.Tri.PRIX))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
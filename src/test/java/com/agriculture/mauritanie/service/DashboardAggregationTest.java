@@ -0,0 +1,189 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.entity.Parcelle;
+import com.agriculture.mauritanie.entity.StatutCultureEnum;
+import com.agriculture.mauritanie.repository.ParcelleRepository;
+import com.agriculture.mauritanie.repository.ParcelleStatRepository;
+import com.agriculture.mauritanie.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les compteurs lus dans parcelle_stats doivent rester identiques aux anciennes requêtes
+ * COUNT/SUM par statut, type de culture, région, commune et irrigation.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ParcelleStatsService.class)
+class DashboardAggregationTest {
+
+    @Autowired
+    private ParcelleRepository parcelleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ParcelleStatsService parcelleStatsService;
+
+    @Autowired
+    private ParcelleStatRepository parcelleStatRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Agriculteur agriculteur;
+
+    @BeforeEach
+    void creerAgriculteur() {
+        Agriculteur nouveau = new Agriculteur();
+        nouveau.setNom("Agriculteur test");
+        nouveau.setTelephone("22334455");
+        nouveau.setMotDePasseHash("hash");
+        agriculteur = userRepository.save(nouveau);
+    }
+
+    /**
+     * getStats reconstruit dans sa propre transaction : ses lignes sont validées et survivent
+     * au rollback du test, on les supprime pour ne pas les laisser dans la base H2 partagée
+     */
+    @AfterTransaction
+    void supprimerStatistiques() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                parcelleStatRepository.deleteByAgriculteurId(agriculteur.getId()));
+    }
+
+    @Test
+    void compteursIdentiquesAuxRequetesParStatut() {
+        ajouter("Riz nord", "Riz", StatutCultureEnum.EN_CROISSANCE, "Trarza", "Rosso", true, "2.50",
+                LocalDate.of(2024, 3, 10));
+        ajouter("Riz sud", "Riz", StatutCultureEnum.EN_FLORAISON, "Trarza", "Rosso", true, "1.25",
+                LocalDate.of(2024, 3, 22));
+        ajouter("Mil", "Mil", StatutCultureEnum.MATURATION, "Brakna", "Aleg", false, "4.00",
+                LocalDate.of(2024, 7, 1));
+        ajouter("Sorgho", "Sorgho", StatutCultureEnum.PRET_A_RECOLTER, "Gorgol", null, false, "3.10", null);
+        ajouter("Jardin", "Maraîchage", StatutCultureEnum.PLANTE, null, null, true, "0.40", null);
+        ajouter("Jachère", "Mil", StatutCultureEnum.EN_REPOS, "Brakna", "Aleg", false, "6.00",
+                LocalDate.of(2023, 11, 5));
+
+        // Une modification (statut, région, surface) et une suppression passent aussi par les deltas
+        Parcelle modifiee = ajouter("Niébé", "Niébé", StatutCultureEnum.EN_CROISSANCE, "Gorgol", "Kaédi", true,
+                "1.75", LocalDate.of(2024, 5, 15));
+        ParcelleStatsService.Empreinte avant = parcelleStatsService.empreinte(modifiee);
+        modifiee.setStatutCulture(StatutCultureEnum.PRET_A_RECOLTER);
+        modifiee.setRegion("Brakna");
+        modifiee.setSurfaceHectares(new BigDecimal("2.00"));
+        parcelleRepository.save(modifiee);
+        parcelleStatsService.parcelleModifiee(agriculteur, avant, modifiee);
+
+        Parcelle supprimee = ajouter("Essai", "Riz", StatutCultureEnum.EN_CROISSANCE, "Trarza", "Keur Macène",
+                false, "0.80", LocalDate.of(2024, 3, 1));
+        avant = parcelleStatsService.empreinte(supprimee);
+        parcelleRepository.delete(supprimee);
+        parcelleStatsService.parcelleSupprimee(agriculteur, avant);
+
+        DashboardAggregation aggregation = DashboardAggregation.fromStats(parcelleStatsService.getStats(agriculteur));
+
+        assertThat(aggregation.getNombreTotal()).isEqualTo(parcelleRepository.countByAgriculteur(agriculteur));
+        assertThat(aggregation.getSurfaceTotale())
+                .isEqualByComparingTo(parcelleRepository.sumSurfaceByAgriculteur(agriculteur));
+        assertThat(aggregation.getCulturesActives()).isEqualTo(
+                compter(StatutCultureEnum.EN_CROISSANCE)
+                        + compter(StatutCultureEnum.EN_FLORAISON)
+                        + compter(StatutCultureEnum.MATURATION));
+        assertThat(aggregation.getCulturesEnRecolte()).isEqualTo(compter(StatutCultureEnum.PRET_A_RECOLTER));
+
+        assertThat(aggregation.getParTypeCulture())
+                .isEqualTo(nombres(parcelleRepository.countByAgriculteurGroupByTypeCulture(agriculteur)));
+        assertSurfaces(aggregation.getSurfaceParTypeCulture(),
+                parcelleRepository.sumSurfaceByAgriculteurGroupByTypeCulture(agriculteur));
+        assertThat(aggregation.getParStatut()).isEqualTo(nombresParStatut());
+        assertThat(aggregation.getParRegion())
+                .isEqualTo(nombres(parcelleRepository.countByAgriculteurGroupByRegion(agriculteur)));
+        assertSurfaces(aggregation.getSurfaceParRegion(),
+                parcelleRepository.sumSurfaceByAgriculteurGroupByRegion(agriculteur));
+        assertThat(aggregation.getParCommune())
+                .isEqualTo(nombres(parcelleRepository.countByAgriculteurGroupByCommune(agriculteur)));
+
+        assertThat(aggregation.getAvecIrrigation())
+                .isEqualTo(parcelleRepository.countByAgriculteurAndIrrigationTrue(agriculteur));
+        assertThat(aggregation.getSansIrrigation())
+                .isEqualTo(parcelleRepository.countByAgriculteurAndIrrigationFalse(agriculteur));
+    }
+
+    @Test
+    void agriculteurSansParcelle() {
+        DashboardAggregation aggregation = DashboardAggregation.fromStats(parcelleStatsService.getStats(agriculteur));
+
+        assertThat(aggregation.getNombreTotal()).isZero();
+        assertThat(aggregation.getSurfaceTotale()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(aggregation.getParStatut()).isEmpty();
+        assertThat(aggregation.getPourcentageIrrigation()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    private Parcelle ajouter(String nom, String typeCulture, StatutCultureEnum statut, String region,
+                             String commune, boolean irrigation, String surface, LocalDate datePlantation) {
+        Parcelle parcelle = new Parcelle();
+        parcelle.setNomParcelle(nom);
+        parcelle.setTypeCulture(typeCulture);
+        parcelle.setStatutCulture(statut);
+        parcelle.setRegion(region);
+        parcelle.setCommune(commune);
+        parcelle.setIrrigation(irrigation);
+        parcelle.setSurfaceHectares(new BigDecimal(surface));
+        parcelle.setDatePlantation(datePlantation);
+        parcelle.setAgriculteur(agriculteur);
+
+        Parcelle enregistree = parcelleRepository.save(parcelle);
+        parcelleStatsService.parcelleAjoutee(agriculteur, enregistree);
+        return enregistree;
+    }
+
+    private long compter(StatutCultureEnum statut) {
+        return parcelleRepository.countByAgriculteurAndStatut(agriculteur, statut);
+    }
+
+    private Map<String, Long> nombres(List<Object[]> lignes) {
+        Map<String, Long> resultat = new HashMap<>();
+        for (Object[] ligne : lignes) {
+            resultat.put((String) ligne[0], ((Number) ligne[1]).longValue());
+        }
+        return resultat;
+    }
+
+    private Map<String, Long> nombresParStatut() {
+        Map<String, Long> resultat = new HashMap<>();
+        for (Object[] ligne : parcelleRepository.countByAgriculteurGroupByStatut(agriculteur)) {
+            resultat.put(((StatutCultureEnum) ligne[0]).getLibelle(), ((Number) ligne[1]).longValue());
+        }
+        return resultat;
+    }
+
+    private void assertSurfaces(Map<String, BigDecimal> obtenues, List<Object[]> attendues) {
+        assertThat(obtenues).hasSize(attendues.size());
+        for (Object[] ligne : attendues) {
+            assertThat(obtenues.get((String) ligne[0]))
+                    .as("surface %s", ligne[0])
+                    .isEqualByComparingTo((BigDecimal) ligne[1]);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.exception.GlobalExceptionHandler;
+import com.agriculture.mauritanie.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pool de hachage saturé : refus immédiat traduit en 503, et file bornée au délai d'attente.
+ */
+class HachageMotDePasseServiceTest {
+
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch demarre = new CountDownLatch(1);
+    private final CountDownLatch liberer = new CountDownLatch(1);
+
+    @AfterEach
+    void libererLesCalculs() {
+        liberer.countDown();
+    }
+
+    @Test
+    void poolSatureRefuseImmediatementEn503() throws Exception {
+        when(passwordEncoder.encode("lent")).thenAnswer(invocation -> {
+            demarre.countDown();
+            liberer.await();
+            return "hash";
+        });
+        HachageMotDePasseService service = new HachageMotDePasseService(passwordEncoder, meterRegistry, 1, 1, 5_000);
+
+        CompletableFuture<String> enCours = CompletableFuture.supplyAsync(() -> service.hacher("lent"));
+        assertThat(demarre.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> enAttente = CompletableFuture.supplyAsync(() -> service.hacher("lent"));
+        while (meterRegistry.get("auth.password.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        long debut = System.nanoTime();
+        ServiceUnavailableException refus = catchThrowableOfType(
+                ServiceUnavailableException.class, () -> service.hacher("autre"));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut)).isLessThan(1_000);
+        assertThat(refus.getServiceName()).isEqualTo("hachage-mot-de-passe");
+        ResponseEntity<?> reponse = new GlobalExceptionHandler()
+                .handleServiceUnavailableException(refus, mock(WebRequest.class));
+        assertThat(reponse.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(reponse.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        liberer.countDown();
+        assertThat(enCours.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(enAttente.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+    }
+
+    @Test
+    void delaiDepasseEn503() {
+        when(passwordEncoder.matches("lent", "hash")).thenAnswer(invocation -> {
+            liberer.await();
+            return true;
+        });
+        HachageMotDePasseService service = new HachageMotDePasseService(passwordEncoder, meterRegistry, 1, 1, 100);
+
+        assertThatThrownBy(() -> service.verifier("lent", "hash"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessage("Délai d'authentification dépassé, veuillez réessayer");
+    }
+
+    @Test
+    void fileBorneeAuxOperationsTraitablesDansLeDelai() {
+        // 4 threads, 100 ms par calcul, 5 s d'attente : la file configurée tient dans le délai
+        assertThat(HachageMotDePasseService.capaciteDansLeDelai(4, 64, 5_000, 100)).isEqualTo(64);
+        // 1 s par calcul : 4 threads × 4 tours d'attente
+        assertThat(HachageMotDePasseService.capaciteDansLeDelai(4, 64, 5_000, 1_000)).isEqualTo(16);
+        // Calcul plus long que le délai : une place au moins
+        assertThat(HachageMotDePasseService.capaciteDansLeDelai(2, 64, 500, 1_000)).isEqualTo(1);
+        assertThat(HachageMotDePasseService.capaciteDansLeDelai(4, 64, 5_000, 0)).isEqualTo(64);
+    }
+}
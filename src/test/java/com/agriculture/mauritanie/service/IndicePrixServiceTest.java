@@ -0,0 +1,125 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.prix.IndicePrixDTO;
+import com.agriculture.mauritanie.dto.prix.PrixOffreProjection;
+import com.agriculture.mauritanie.entity.OffreMarche;
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.entity.UniteEnum;
+import com.agriculture.mauritanie.repository.OffreMarcheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mise à jour incrémentale de l'indice des prix : unités ramenées au kilogramme,
+ * changement de prix ou de statut, fenêtre glissante et mises à jour concurrentes d'une reconstruction.
+ */
+class IndicePrixServiceTest {
+
+    private static final Duration FENETRE = Duration.ofDays(30);
+
+    private final OffreMarcheRepository offreMarcheRepository = mock(OffreMarcheRepository.class);
+    private final IndicePrixService service =
+            new IndicePrixService(offreMarcheRepository, new SimpleMeterRegistry(), FENETRE);
+
+    @Test
+    void tonneRameneeAuKilogramme() {
+        service.mettreAJour(offre(1L, UniteEnum.KG, "300", "500"));
+        service.mettreAJour(offre(2L, UniteEnum.TONNE, "320000", "2"));
+        service.mettreAJour(offre(3L, UniteEnum.SAC, "15000", "10"));
+
+        List<IndicePrixDTO> indices = service.consulter("riz", "trarza");
+
+        assertThat(indices).extracting(IndicePrixDTO::getUnite).containsExactly(UniteEnum.KG, UniteEnum.SAC);
+        IndicePrixDTO kilogramme = indices.get(0);
+        assertThat(kilogramme.getNombreOffres()).isEqualTo(2);
+        assertThat(kilogramme.getPrixMin()).isEqualByComparingTo("300.00");
+        assertThat(kilogramme.getPrixMax()).isEqualByComparingTo("320.00");
+        assertThat(kilogramme.getVolume()).isEqualByComparingTo("2500.00");
+    }
+
+    @Test
+    void changementDePrixRemplaceLAncienneContribution() {
+        OffreMarche offre = offre(1L, UniteEnum.KG, "300", "500");
+        service.mettreAJour(offre);
+        service.mettreAJour(offre(2L, UniteEnum.KG, "310", "100"));
+
+        offre.setPrixUnitaire(new BigDecimal("275.50"));
+        service.mettreAJour(offre);
+
+        IndicePrixDTO indice = service.consulter("Riz", null).get(0);
+        assertThat(indice.getNombreOffres()).isEqualTo(2);
+        assertThat(indice.getPrixMin()).isEqualByComparingTo("275.50");
+        assertThat(indice.getPrixMax()).isEqualByComparingTo("310.00");
+        assertThat(indice.getVolume()).isEqualByComparingTo("600.00");
+    }
+
+    @Test
+    void offreQuiNEstPlusDisponibleRetireeDeLIndice() {
+        OffreMarche offre = offre(1L, UniteEnum.KG, "300", "500");
+        service.mettreAJour(offre);
+
+        offre.setStatut(StatutOffreEnum.VENDU);
+        service.mettreAJour(offre);
+
+        assertThat(service.consulter("Riz", null)).isEmpty();
+    }
+
+    @Test
+    void offreHorsFenetreIgnoree() {
+        OffreMarche ancienne = offre(1L, UniteEnum.KG, "300", "500");
+        ancienne.setDatePublication(LocalDateTime.now().minus(FENETRE).minusDays(1));
+        service.mettreAJour(ancienne);
+
+        assertThat(service.consulter("Riz", null)).isEmpty();
+    }
+
+    @Test
+    void misesAJourPendantLaReconstructionRejouees() {
+        // L'offre 1 est vendue et l'offre 3 publiée pendant la lecture de la table
+        when(offreMarcheRepository.findPrixDisponibles(eq(StatutOffreEnum.DISPONIBLE), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    OffreMarche vendue = offre(1L, UniteEnum.KG, "300", "500");
+                    vendue.setStatut(StatutOffreEnum.VENDU);
+                    service.mettreAJour(vendue);
+                    service.mettreAJour(offre(3L, UniteEnum.KG, "340", "50"));
+                    return List.of(
+                            projection(1L, "300", "500"),
+                            projection(2L, "310", "100"));
+                });
+
+        service.reconstruire();
+
+        IndicePrixDTO indice = service.consulter("Riz", "Trarza").get(0);
+        assertThat(indice.getNombreOffres()).isEqualTo(2);
+        assertThat(indice.getPrixMin()).isEqualByComparingTo("310.00");
+        assertThat(indice.getPrixMax()).isEqualByComparingTo("340.00");
+        assertThat(indice.getVolume()).isEqualByComparingTo("150.00");
+    }
+
+    private static OffreMarche offre(Long id, UniteEnum unite, String prix, String quantite) {
+        OffreMarche offre = new OffreMarche();
+        offre.setId(id);
+        offre.setProduit("Riz");
+        offre.setRegion("Trarza");
+        offre.setUnite(unite);
+        offre.setPrixUnitaire(new BigDecimal(prix));
+        offre.setQuantite(new BigDecimal(quantite));
+        offre.setDatePublication(LocalDateTime.now());
+        return offre;
+    }
+
+    private static PrixOffreProjection projection(Long id, String prix, String quantite) {
+        return new PrixOffreProjection(id, "Riz", "Trarza", UniteEnum.KG, new BigDecimal(prix), new BigDecimal(quantite));
+    }
+}
@@ -0,0 +1,115 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.entity.StatutOffreEnum;
+import com.agriculture.mauritanie.repository.OffreMarcheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Balayage par lots des offres échues et replanification à l'échéance la plus proche.
+ */
+class OffreExpirationServiceTest {
+
+    private static final int TAILLE_LOT = 2;
+
+    private final OffreMarcheRepository offreMarcheRepository = mock(OffreMarcheRepository.class);
+    private final IndicePrixService indicePrixService = mock(IndicePrixService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private OffreExpirationService service;
+
+    @BeforeEach
+    void creerService() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        service = new OffreExpirationService(offreMarcheRepository, indicePrixService, transactionManager,
+                taskScheduler, new SimpleMeterRegistry(), TAILLE_LOT, Duration.ofMinutes(15));
+    }
+
+    @Test
+    void lotsSuccessifsEtRetraitDesSeulesOffresExpirees() {
+        when(offreMarcheRepository.findIdsExpirees(eq(StatutOffreEnum.DISPONIBLE), any(LocalDateTime.class),
+                any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        // L'offre 4 est vendue entre la lecture du lot et l'UPDATE
+        when(offreMarcheRepository.findIdsByIdInAndStatut(anyList(), eq(StatutOffreEnum.EXPIRE)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of(5L));
+
+        assertThat(service.balayer()).isEqualTo(4);
+
+        InOrder ordre = inOrder(offreMarcheRepository, transactionManager, indicePrixService);
+        ordre.verify(offreMarcheRepository).expirer(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        ordre.verify(offreMarcheRepository).findIdsByIdInAndStatut(List.of(1L, 2L), StatutOffreEnum.EXPIRE);
+        ordre.verify(transactionManager).commit(any());
+        ordre.verify(indicePrixService).retirer(List.of(1L, 2L));
+        verify(indicePrixService).retirer(List.of(3L));
+        verify(indicePrixService).retirer(List.of(5L));
+        verify(offreMarcheRepository, times(3)).findIdsExpirees(any(), any(), any());
+    }
+
+    @Test
+    void dernierLotCompletSuiviDUneLectureVide() {
+        when(offreMarcheRepository.findIdsExpirees(eq(StatutOffreEnum.DISPONIBLE), any(LocalDateTime.class),
+                any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of());
+        when(offreMarcheRepository.findIdsByIdInAndStatut(anyList(), eq(StatutOffreEnum.EXPIRE)))
+                .thenReturn(List.of());
+
+        assertThat(service.balayer()).isZero();
+
+        verify(offreMarcheRepository, times(2)).findIdsExpirees(any(), any(), any());
+        verify(offreMarcheRepository, times(1)).expirer(anyList(), any());
+        verify(indicePrixService, never()).retirer(anyList());
+    }
+
+    @Test
+    void replanificationALEcheanceLaPlusProche() {
+        ScheduledFuture<?> premier = mock(ScheduledFuture.class);
+        ScheduledFuture<?> second = mock(ScheduledFuture.class);
+        doReturn(premier, second).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        LocalDateTime dans2h = LocalDateTime.now().plusHours(2);
+        LocalDateTime dans1h = LocalDateTime.now().plusHours(1);
+
+        service.signaler(dans2h);
+        // Échéance plus tardive : le passage prévu est conservé
+        service.signaler(dans2h.plusMinutes(30));
+        service.signaler(null);
+        // Échéance plus proche : le passage prévu est remplacé
+        service.signaler(dans1h);
+
+        InOrder ordre = inOrder(taskScheduler, premier);
+        ordre.verify(taskScheduler).schedule(any(Runnable.class), eq(instant(dans2h)));
+        ordre.verify(premier).cancel(false);
+        ordre.verify(taskScheduler).schedule(any(Runnable.class), eq(instant(dans1h)));
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+        verify(second, never()).cancel(false);
+    }
+
+    private static Instant instant(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,166 @@
+package com.agriculture.mauritanie.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aucune vue ne doit être perdue ni comptée deux fois quand flush tourne
+ * pendant que des requêtes enregistrent des vues, ni quand un lot échoue en cours d'écriture.
+ * Le gestionnaire de transactions simulé ne reporte les lignes écrites qu'au commit.
+ */
+class OffreVuesCompteurTest {
+
+    private static final int THREADS = 8;
+    private static final int VUES_PAR_THREAD = 50_000;
+    private static final int OFFRES_PEU_VUES = 32;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<Long, Long> ecrites = new HashMap<>();
+    private final Map<Long, Long> nonValidees = new HashMap<>();
+    private OffreVuesCompteur compteur;
+
+    @BeforeEach
+    void creerCompteur() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        doAnswer(invocation -> {
+            nonValidees.forEach((offreId, vues) -> ecrites.merge(offreId, vues, Long::sum));
+            nonValidees.clear();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            nonValidees.clear();
+            return null;
+        }).when(transactionManager).rollback(any());
+        compteur = new OffreVuesCompteur(jdbcTemplate, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void aucuneVuePerduePendantLesFlush() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> ecrire(invocation.getArgument(1)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<?>> taches = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                taches.add(executor.submit(() -> {
+                    depart.await();
+                    for (int i = 0; i < VUES_PAR_THREAD; i++) {
+                        compteur.enregistrer(offre(thread, i));
+                    }
+                    return null;
+                }));
+            }
+            depart.countDown();
+
+            // Flush en boucle : les offres peu vues ont souvent un delta nul et sont retirées du tampon
+            while (taches.stream().anyMatch(tache -> !tache.isDone())) {
+                compteur.flush();
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+        compteur.flush();
+
+        Map<Long, Long> attendues = new HashMap<>();
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < VUES_PAR_THREAD; i++) {
+                attendues.merge(offre(t, i), 1L, Long::sum);
+            }
+        }
+        assertThat(ecrites).isEqualTo(attendues);
+        assertThat(meterRegistry.get("offres.vues.ecrites").counter().count())
+                .isEqualTo((double) THREADS * VUES_PAR_THREAD);
+        attendues.keySet().forEach(offreId -> assertThat(compteur.enAttente(offreId)).isZero());
+    }
+
+    @Test
+    void vuesConserveesApresUnEchecDEcriture() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Base indisponible"))
+                .thenAnswer(invocation -> ecrire(invocation.getArgument(1)));
+
+        compteur.enregistrer(1L);
+        compteur.enregistrer(1L);
+        compteur.enregistrer(2L);
+        compteur.flush();
+
+        assertThat(ecrites).isEmpty();
+        assertThat(compteur.enAttente(1L)).isEqualTo(2);
+
+        compteur.enregistrer(1L);
+        compteur.flush();
+
+        assertThat(ecrites).isEqualTo(Map.of(1L, 3L, 2L, 1L));
+        assertThat(compteur.enAttente(1L)).isZero();
+    }
+
+    @Test
+    void echecAuMilieuDuLotSansDoubleComptage() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenAnswer(invocation -> {
+                    // Première ligne écrite, puis perte de connexion
+                    List<Object[]> lots = invocation.getArgument(1);
+                    ecrire(lots.subList(0, 1));
+                    throw new DataAccessResourceFailureException("Connexion perdue");
+                })
+                .thenAnswer(invocation -> ecrire(invocation.getArgument(1)));
+
+        compteur.enregistrer(1L);
+        compteur.enregistrer(1L);
+        compteur.enregistrer(2L);
+        compteur.flush();
+
+        assertThat(ecrites).isEmpty();
+        assertThat(compteur.enAttente(1L)).isEqualTo(2);
+        assertThat(compteur.enAttente(2L)).isEqualTo(1);
+
+        compteur.flush();
+
+        assertThat(ecrites).isEqualTo(Map.of(1L, 2L, 2L, 1L));
+        assertThat(meterRegistry.get("offres.vues.ecrites").counter().count()).isEqualTo(3.0);
+    }
+
+    // Une offre très consultée (une vue sur deux) et des offres peu vues
+    private static Long offre(int thread, int i) {
+        return i % 2 == 0 ? 1L : 2L + (i / 2 + thread) % OFFRES_PEU_VUES;
+    }
+
+    // Appelé par le seul thread qui exécute flush ; reporté dans ecrites au commit
+    private int[] ecrire(List<Object[]> lots) {
+        for (Object[] ligne : lots) {
+            nonValidees.merge((Long) ligne[1], (Long) ligne[0], Long::sum);
+        }
+        return new int[lots.size()];
+    }
+}
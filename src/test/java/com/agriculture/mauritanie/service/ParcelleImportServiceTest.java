@@ -0,0 +1,124 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.parcelle.CreateParcelleRequest;
+import com.agriculture.mauritanie.dto.parcelle.ImportParcellesResultatDTO;
+import com.agriculture.mauritanie.entity.Agriculteur;
+import com.agriculture.mauritanie.exception.ValidationException;
+import com.agriculture.mauritanie.repository.ParcelleRepository;
+import com.agriculture.mauritanie.repository.UserRepository;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rapport ligne par ligne de l'import en masse, et recalcul des agrégats dans la transaction d'insertion.
+ */
+class ParcelleImportServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final ParcelleRepository parcelleRepository = mock(ParcelleRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ParcelleStatsService parcelleStatsService = mock(ParcelleStatsService.class);
+    private final ParcelleRechercheService parcelleRechercheService = mock(ParcelleRechercheService.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final Agriculteur agriculteur = new Agriculteur();
+
+    @BeforeEach
+    void creerAgriculteur() {
+        agriculteur.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(agriculteur));
+        when(parcelleRepository.findNomsNormalisesByAgriculteur(agriculteur)).thenReturn(List.of("existante"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rapportParLigneEtNomsReservesParLesSeulesLignesAcceptees() throws Exception {
+        String csv = """
+                nomParcelle,surfaceHectares,typeCulture,notes
+                "Riz, nord",2.5,Riz,"Digue ""est""
+                refaite"
+                "Riz, nord",1.0,Riz,
+                Maraîchage,-3,Oignon,
+                Maraîchage,1.5,Oignon,
+                Existante,1,Mil,
+                """;
+
+        ImportParcellesResultatDTO resultat = service(100).importerCsv(1L, new StringReader(csv));
+
+        assertThat(resultat.getTotalLignes()).isEqualTo(5);
+        assertThat(resultat.getImportees()).isEqualTo(2);
+        assertThat(resultat.getRejetees()).isEqualTo(3);
+        assertThat(resultat.getErreurs()).extracting(ImportParcellesResultatDTO.ErreurLigneDTO::getLigne)
+                .containsExactly(3, 4, 6);
+        assertThat(resultat.getErreurs().get(0).getMessages()).containsExactly("Une parcelle avec ce nom existe déjà");
+        assertThat(resultat.getErreurs().get(1).getMessages()).containsExactly("La surface doit être positive");
+
+        ArgumentCaptor<Collection<CreateParcelleRequest>> inserees = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), inserees.capture(), anyInt(), any());
+        assertThat(inserees.getValue()).extracting(CreateParcelleRequest::getNomParcelle)
+                .containsExactly("Riz, nord", "Maraîchage");
+        assertThat(inserees.getValue().iterator().next().getNotes()).isEqualTo("Digue \"est\"\nrefaite");
+    }
+
+    @Test
+    void agregatsEtIndexRecalculesAvantLeCommit() {
+        service(100).importer(1L, List.of(requete("Riz nord")));
+
+        InOrder ordre = inOrder(transactionManager, jdbcTemplate, parcelleStatsService, parcelleRechercheService);
+        ordre.verify(transactionManager).getTransaction(any());
+        ordre.verify(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+        ordre.verify(parcelleStatsService).reconstruireDansLaTransaction(agriculteur);
+        ordre.verify(parcelleRechercheService).reindexer(agriculteur);
+        ordre.verify(transactionManager).commit(any());
+        verify(parcelleStatsService, never()).reconstruire(any(Agriculteur.class));
+    }
+
+    @Test
+    void importLimiteAuNombreMaximalDeLignes() {
+        List<CreateParcelleRequest> requetes = List.of(requete("A"), requete("B"), requete("C"));
+
+        assertThatThrownBy(() -> service(2).importer(1L, requetes))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Import limité à 2 lignes");
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+
+    private ParcelleImportService service(int maxLignes) {
+        return new ParcelleImportService(parcelleRepository, userRepository, parcelleStatsService,
+                parcelleRechercheService, jdbcTemplate, transactionManager, VALIDATOR, maxLignes);
+    }
+
+    private static CreateParcelleRequest requete(String nom) {
+        CreateParcelleRequest requete = new CreateParcelleRequest();
+        requete.setNomParcelle(nom);
+        requete.setSurfaceHectares(new BigDecimal("1.00"));
+        requete.setTypeCulture("Riz");
+        return requete;
+    }
+}
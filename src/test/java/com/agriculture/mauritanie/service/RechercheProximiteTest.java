@@ -0,0 +1,121 @@
+package com.agriculture.mauritanie.service;
+
+import com.agriculture.mauritanie.dto.geo.PositionDTO;
+import com.agriculture.mauritanie.exception.ValidationException;
+import com.agriculture.mauritanie.util.GeoUtil;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Affinage d'une recherche par proximité : filtre par rayon, ordre des distances
+ * et tas borné qui ne garde que les plus proches.
+ */
+class RechercheProximiteTest {
+
+    // Nouakchott
+    private static final double LATITUDE = 18.0735;
+    private static final double LONGITUDE = -15.9582;
+
+    @Test
+    void candidatsDansLeRayonDuPlusProcheAuPlusEloigne() {
+        List<PositionDTO> candidats = List.of(
+                position(1L, 18.50, -15.95),   // ~47 km
+                position(2L, 18.08, -15.96),   // < 1 km
+                position(3L, 16.51, -15.80),   // Rosso, ~174 km : hors rayon
+                position(4L, 18.20, -15.70),   // ~30 km
+                new PositionDTO(5L, null, null));
+
+        List<RechercheProximite.Voisin> voisins = RechercheProximite.classer(candidats, LATITUDE, LONGITUDE, 100, 10);
+
+        assertThat(voisins).extracting(RechercheProximite.Voisin::getId).containsExactly(2L, 4L, 1L);
+        assertThat(voisins).extracting(RechercheProximite.Voisin::getDistanceKm).isSorted()
+                .allSatisfy(distance -> assertThat(distance).isLessThanOrEqualTo(100));
+    }
+
+    @Test
+    void limiteConserveLesPlusProches() {
+        Random aleatoire = new Random(42);
+        List<PositionDTO> candidats = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            candidats.add(position(id, LATITUDE + aleatoire.nextDouble() * 2 - 1,
+                    LONGITUDE + aleatoire.nextDouble() * 2 - 1));
+        }
+
+        List<RechercheProximite.Voisin> voisins = RechercheProximite.classer(candidats, LATITUDE, LONGITUDE, 80, 25);
+
+        // Référence : tri complet des candidats dans le rayon
+        List<Long> attendus = candidats.stream()
+                .filter(candidat -> distance(candidat) <= 80)
+                .sorted(Comparator.comparingDouble(RechercheProximiteTest::distance))
+                .limit(25)
+                .map(PositionDTO::getId)
+                .toList();
+        assertThat(attendus).hasSize(25);
+        assertThat(voisins).extracting(RechercheProximite.Voisin::getId).containsExactlyElementsOf(attendus);
+    }
+
+    @Test
+    void moinsDeCandidatsQueLaLimite() {
+        List<PositionDTO> candidats = List.of(position(1L, 18.10, -15.90), position(2L, 18.05, -15.95));
+
+        assertThat(RechercheProximite.classer(candidats, LATITUDE, LONGITUDE, 50, 200))
+                .extracting(RechercheProximite.Voisin::getId)
+                .containsExactly(2L, 1L);
+        assertThat(RechercheProximite.classer(List.of(), LATITUDE, LONGITUDE, 50, 200)).isEmpty();
+    }
+
+    @Test
+    void distancesEgalesDepartageesParIdentifiant() {
+        List<PositionDTO> candidats = List.of(
+                position(9L, 18.20, -15.90), position(3L, 18.20, -15.90), position(6L, 18.20, -15.90));
+
+        assertThat(RechercheProximite.classer(candidats, LATITUDE, LONGITUDE, 50, 2))
+                .extracting(RechercheProximite.Voisin::getId)
+                .hasSize(2)
+                .isSorted();
+        assertThat(RechercheProximite.classer(candidats, LATITUDE, LONGITUDE, 50, 3))
+                .extracting(RechercheProximite.Voisin::getId)
+                .containsExactly(3L, 6L, 9L);
+    }
+
+    @Test
+    void limiteBornee() {
+        assertThat(RechercheProximite.limite(0)).isEqualTo(1);
+        assertThat(RechercheProximite.limite(-5)).isEqualTo(1);
+        assertThat(RechercheProximite.limite(20)).isEqualTo(20);
+        assertThat(RechercheProximite.limite(10_000)).isEqualTo(RechercheProximite.LIMITE_MAX);
+    }
+
+    @Test
+    void parametresInvalidesRefuses() {
+        assertThatThrownBy(() -> RechercheProximite.valider(91, LONGITUDE, 10))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> RechercheProximite.valider(LATITUDE, -181, 10))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> RechercheProximite.valider(LATITUDE, LONGITUDE, 0))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> RechercheProximite.valider(LATITUDE, LONGITUDE, Double.NaN))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> RechercheProximite.valider(LATITUDE, LONGITUDE, RechercheProximite.RAYON_MAX_KM + 1))
+                .isInstanceOf(ValidationException.class);
+        RechercheProximite.valider(LATITUDE, LONGITUDE, RechercheProximite.RAYON_MAX_KM);
+    }
+
+    private static PositionDTO position(Long id, double latitude, double longitude) {
+        return new PositionDTO(id, BigDecimal.valueOf(latitude), BigDecimal.valueOf(longitude));
+    }
+
+    private static double distance(PositionDTO position) {
+        return GeoUtil.distanceKm(LATITUDE, LONGITUDE,
+                position.getLatitude().doubleValue(), position.getLongitude().doubleValue());
+    }
+}
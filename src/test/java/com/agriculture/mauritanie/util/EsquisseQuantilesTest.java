@@ -0,0 +1,79 @@
+package com.agriculture.mauritanie.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Quantiles à ±1 % près d'une référence triée, et retraits exacts.
+ */
+class EsquisseQuantilesTest {
+
+    private static final double PRECISION = 0.01;
+
+    private final EsquisseQuantiles esquisse = new EsquisseQuantiles(PRECISION);
+
+    @Test
+    void esquisseVideSansQuantile() {
+        assertThat(esquisse.isVide()).isTrue();
+        assertThat(esquisse.quantile(0.5)).isNaN();
+    }
+
+    @Test
+    void valeursNullesOuNegativesIgnorees() {
+        esquisse.ajouter(0);
+        esquisse.ajouter(-12.5);
+        esquisse.ajouter(Double.NaN);
+
+        assertThat(esquisse.getNombre()).isZero();
+        assertThat(esquisse.quantile(0)).isNaN();
+    }
+
+    @Test
+    void retraitRestaureLesComptes() {
+        esquisse.ajouter(100);
+        esquisse.ajouter(250);
+        double medianeAvant = esquisse.quantile(0.5);
+
+        esquisse.ajouter(4000);
+        esquisse.retirer(4000);
+
+        assertThat(esquisse.getNombre()).isEqualTo(2);
+        assertThat(esquisse.quantile(0.5)).isEqualTo(medianeAvant);
+        assertThat(esquisse.quantile(1)).isCloseTo(250, offset(250 * PRECISION));
+    }
+
+    @Test
+    void retraitDUneValeurJamaisAjouteeSansEffet() {
+        esquisse.ajouter(100);
+
+        esquisse.retirer(5000);
+        esquisse.retirer(-1);
+
+        assertThat(esquisse.getNombre()).isEqualTo(1);
+        assertThat(esquisse.quantile(0)).isCloseTo(100, offset(100 * PRECISION));
+    }
+
+    @Test
+    void quantilesAUnPourCentPresDeLaReference() {
+        Random aleatoire = new Random(42);
+        double[] valeurs = new double[20_000];
+        for (int i = 0; i < valeurs.length; i++) {
+            // Prix étalés sur plusieurs ordres de grandeur (10 à 100 000)
+            valeurs[i] = Math.pow(10, 1 + 4 * aleatoire.nextDouble());
+            esquisse.ajouter(valeurs[i]);
+        }
+        Arrays.sort(valeurs);
+
+        for (double q : new double[]{0, 0.5, 1}) {
+            double reference = valeurs[(int) Math.floor(q * (valeurs.length - 1))];
+            assertThat(esquisse.quantile(q)).as("quantile %s", q)
+                    .isCloseTo(reference, within(reference * PRECISION * (1 + 1e-9)));
+        }
+    }
+}
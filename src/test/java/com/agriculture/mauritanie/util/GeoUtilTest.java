@@ -0,0 +1,80 @@
+package com.agriculture.mauritanie.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Le rectangle du préfiltre doit contenir tout le cercle de recherche, bord compris :
+ * un point exclu par le rectangle n'est jamais proposé à l'affinage par haversine.
+ */
+class GeoUtilTest {
+
+    // Marge des erreurs d'arrondi (environ 0,1 mm)
+    private static final double TOLERANCE_DEGRES = 1e-9;
+
+    @ParameterizedTest(name = "centre ({0}, {1}), rayon {2} km")
+    @CsvSource({
+            "18.0735, -15.9582, 1",     // Nouakchott
+            "18.0735, -15.9582, 200",
+            "16.5138, -15.8050, 50",    // Rosso
+            "22.6833, -12.4667, 200",   // Zouérat
+            "16.6170, -7.2560, 120",    // Néma
+            "60.0, 10.0, 200",          // haute latitude : écart le plus marqué en longitude
+            "89.5, 0.0, 100"            // cercle contenant le pôle
+    })
+    void boiteContientLeCercle(double latitude, double longitude, double rayonKm) {
+        GeoUtil.BoiteEnglobante boite = GeoUtil.boite(latitude, longitude, rayonKm);
+
+        for (double fraction : new double[]{0.25, 0.5, 0.9, 1.0}) {
+            for (int dixiemes = 0; dixiemes < 3600; dixiemes++) {
+                double[] point = destination(latitude, longitude, rayonKm * fraction, dixiemes / 10.0);
+
+                assertThat(GeoUtil.distanceKm(latitude, longitude, point[0], point[1]))
+                        .isCloseTo(rayonKm * fraction, within(1e-6));
+                assertThat(point[0]).as("latitude au cap %s", dixiemes / 10.0)
+                        .isBetween(boite.getLatitudeMin() - TOLERANCE_DEGRES,
+                                boite.getLatitudeMax() + TOLERANCE_DEGRES);
+                assertThat(point[1]).as("longitude au cap %s", dixiemes / 10.0)
+                        .isBetween(boite.getLongitudeMin() - TOLERANCE_DEGRES,
+                                boite.getLongitudeMax() + TOLERANCE_DEGRES);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "centre ({0}, {1}), rayon {2} km")
+    @CsvSource({
+            "18.0735, -15.9582, 200",
+            "22.6833, -12.4667, 50"
+    })
+    void boiteAjusteeAuCercle(double latitude, double longitude, double rayonKm) {
+        GeoUtil.BoiteEnglobante boite = GeoUtil.boite(latitude, longitude, rayonKm);
+
+        // Chaque bord du rectangle est atteint par un point du cercle
+        assertThat(GeoUtil.distanceKm(latitude, longitude, boite.getLatitudeMax(), longitude))
+                .isCloseTo(rayonKm, within(1e-6));
+        assertThat(GeoUtil.distanceKm(latitude, longitude, boite.getLatitudeMin(), longitude))
+                .isCloseTo(rayonKm, within(1e-6));
+        double lonMax = Double.NEGATIVE_INFINITY;
+        for (int dixiemes = 0; dixiemes < 1800; dixiemes++) {
+            lonMax = Math.max(lonMax, destination(latitude, longitude, rayonKm, dixiemes / 10.0)[1]);
+        }
+        assertThat(boite.getLongitudeMax()).isCloseTo(lonMax, within(1e-5));
+    }
+
+    /**
+     * Point atteint depuis le centre à la distance et au cap (en degrés) donnés, sur la sphère
+     */
+    private static double[] destination(double latitude, double longitude, double distanceKm, double capDegres) {
+        double delta = distanceKm / GeoUtil.RAYON_TERRE_KM;
+        double phi = Math.toRadians(latitude);
+        double cap = Math.toRadians(capDegres);
+
+        double phi2 = Math.asin(Math.sin(phi) * Math.cos(delta) + Math.cos(phi) * Math.sin(delta) * Math.cos(cap));
+        double lambda2 = Math.toRadians(longitude) + Math.atan2(Math.sin(cap) * Math.sin(delta) * Math.cos(phi),
+                Math.cos(delta) - Math.sin(phi) * Math.sin(phi2));
+        return new double[]{Math.toDegrees(phi2), Math.toDegrees(lambda2)};
+    }
+}
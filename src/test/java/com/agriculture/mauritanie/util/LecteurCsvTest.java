@@ -0,0 +1,40 @@
+package com.agriculture.mauritanie.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Découpage RFC 4180 : guillemets, séparateurs et retours à la ligne à l'intérieur d'un champ.
+ */
+class LecteurCsvTest {
+
+    @Test
+    void champsEntreGuillemets() throws IOException {
+        LecteurCsv csv = new LecteurCsv(new StringReader(
+                "nom,notes\r\n\"Riz, nord\",\"Digue \"\"est\"\"\nrefaite\"\r\nMil,\n"), ',');
+
+        assertThat(csv.lire()).containsExactly("nom", "notes");
+        assertThat(csv.lire()).containsExactly("Riz, nord", "Digue \"est\"\nrefaite");
+        assertThat(csv.lire()).containsExactly("Mil", "");
+        assertThat(csv.lire()).isNull();
+    }
+
+    @Test
+    void separateurPointVirgule() throws IOException {
+        LecteurCsv csv = new LecteurCsv(new StringReader("Riz;2,5;\"a;b\""), ';');
+
+        assertThat(csv.lire()).containsExactly("Riz", "2,5", "a;b");
+        assertThat(csv.lire()).isNull();
+    }
+
+    @Test
+    void guillemetAuMilieuDUnChampConserve() throws IOException {
+        LecteurCsv csv = new LecteurCsv(new StringReader("Parcelle 12\" ouest,Riz\n"), ',');
+
+        assertThat(csv.lire()).containsExactly("Parcelle 12\" ouest", "Riz");
+    }
+}